@@ -10,8 +10,13 @@
 // Comparable findMin( )  --> Return smallest item
 // Comparable findMax( )  --> Return largest item
 // boolean isEmpty( )     --> Return true if empty; else false
+// int height( )          --> Return the height; -1 if empty
 // void makeEmpty( )      --> Remove all items
 // void printTree( )      --> Print tree in sorted order
+// void forEachInOrder( action ) --> Pass every item to action, in sorted order
+// void forEachPreOrder( action ) --> Pass every item to action, parents first
+// int insertAll( xs )    --> Insert a batch; return how many were new
+// int removeAll( xs )    --> Remove a batch; return how many were present
 // ******************ERRORS********************************
 // Throws UnderflowException as appropriate
 
@@ -35,7 +40,7 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
      * @param x the item to insert.
      */
     public void insert(AnyType x) {
-        root = insert(x, root);
+        root = insert(x, root, 0);
     }
 
     /**
@@ -44,7 +49,7 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
      * @param x the item to remove.
      */
     public void remove(AnyType x) {
-        root = remove(x, root);
+        root = remove(x, root, 0);
     }
 
     /**
@@ -76,7 +81,7 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
      * @return true if not found.
      */
     public boolean contains(AnyType x) {
-        return contains(x, root);
+        return contains(x, root, 0);
     }
 
     /**
@@ -105,25 +110,102 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
             printTree(root);
     }
 
+    /**
+     * Pass every item to action, in sorted order.
+     *
+     * @param action what to do with each item.
+     */
+    public void forEachInOrder(java.util.function.Consumer<? super AnyType> action) {
+        forEachInOrder(root, action);
+    }
+
+    /**
+     * Pass every item to action, each before its subtrees. Inserting the
+     * items in this order into an empty tree rebuilds this tree's shape.
+     *
+     * @param action what to do with each item.
+     */
+    public void forEachPreOrder(java.util.function.Consumer<? super AnyType> action) {
+        forEachPreOrder(root, action);
+    }
+
+    /**
+     * Insert a batch of items; duplicates are ignored. The batch is sorted
+     * and merged into the tree in one traversal, so each node is visited
+     * at most once however many keys pass below it, and keys that fall
+     * into the same empty subtree are hung there as a balanced subtree.
+     * A batch at least as large as the tree instead relinks the existing
+     * nodes and the new ones into a balanced tree, in linear time.
+     *
+     * @param xs the items to insert.
+     * @return the number of items that were not already present.
+     */
+    public int insertAll(java.util.Collection<? extends AnyType> xs) {
+        AnyType[] keys = sortedUnique(xs);
+        if (keys.length == 0)
+            return 0;
+
+        if (sizeAtMost(root, keys.length) <= keys.length) {
+            BinaryNode<AnyType>[] nodes = nodes();
+            BinaryNode<AnyType>[] merged = merge(nodes, keys);
+            root = link(merged, 0, merged.length);
+            return merged.length - nodes.length;
+        }
+
+        int[] added = {0};
+        root = insertAll(keys, 0, keys.length, root, added);
+        return added[0];
+    }
+
+    /**
+     * Remove a batch of items; items not found are skipped. Works like
+     * insertAll: one merged traversal for small batches, a linear
+     * balanced relink of the surviving nodes for batches at least as
+     * large as the tree.
+     *
+     * @param xs the items to remove.
+     * @return the number of items that were present.
+     */
+    public int removeAll(java.util.Collection<? extends AnyType> xs) {
+        AnyType[] keys = sortedUnique(xs);
+        if (keys.length == 0 || root == null)
+            return 0;
+
+        if (sizeAtMost(root, keys.length) <= keys.length) {
+            BinaryNode<AnyType>[] nodes = nodes();
+            BinaryNode<AnyType>[] rest = subtract(nodes, keys);
+            root = link(rest, 0, rest.length);
+            return nodes.length - rest.length;
+        }
+
+        int[] removed = {0};
+        root = removeAll(keys, 0, keys.length, root, removed);
+        return removed[0];
+    }
+
     /**
      * Internal method to insert into a subtree.
      *
      * @param x the item to insert.
      * @param t the node that roots the subtree.
+     * @param compares compareTo calls made above t, reported to Metrics.
      * @return the new root of the subtree.
      */
-    private BinaryNode<AnyType> insert(AnyType x, BinaryNode<AnyType> t) {
-        if (t == null)
+    private BinaryNode<AnyType> insert(AnyType x, BinaryNode<AnyType> t, int compares) {
+        if (t == null) {
+            if (Metrics.ENABLED)
+                Metrics.treeOperation(compares);
             return new BinaryNode<>(x, null, null);
+        }
 
         int compareResult = x.compareTo(t.element);
 
         if (compareResult < 0)
-            t.left = insert(x, t.left);
+            t.left = insert(x, t.left, compares + 1);
         else if (compareResult > 0)
-            t.right = insert(x, t.right);
-        else
-            ; // Duplicate; do nothing
+            t.right = insert(x, t.right, compares + 1);
+        else if (Metrics.ENABLED) // Duplicate; do nothing but count it
+            Metrics.treeOperation(compares + 1);
         return t;
     }
 
@@ -132,24 +214,31 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
      *
      * @param x the item to remove.
      * @param t the node that roots the subtree.
+     * @param compares compareTo calls made above t, reported to Metrics.
      * @return the new root of the subtree.
      */
-    private BinaryNode<AnyType> remove(AnyType x, BinaryNode<AnyType> t) {
-        if (t == null)
+    private BinaryNode<AnyType> remove(AnyType x, BinaryNode<AnyType> t, int compares) {
+        if (t == null) {
+            if (Metrics.ENABLED)
+                Metrics.treeOperation(compares);
             return t; // Item not found; do nothing
+        }
 
         int compareResult = x.compareTo(t.element);
 
         if (compareResult < 0)
-            t.left = remove(x, t.left);
+            t.left = remove(x, t.left, compares + 1);
         else if (compareResult > 0)
-            t.right = remove(x, t.right);
+            t.right = remove(x, t.right, compares + 1);
         else if (t.left != null && t.right != null) // Two children
         {
             t.element = findMin(t.right).element;
-            t.right = remove(t.element, t.right);
-        } else
+            t.right = remove(t.element, t.right, compares + 1);
+        } else {
+            if (Metrics.ENABLED)
+                Metrics.treeOperation(compares + 1);
             t = (t.left != null) ? t.left : t.right;
+        }
         return t;
     }
 
@@ -186,20 +275,27 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
      *
      * @param x is item to search for.
      * @param t the node that roots the subtree.
+     * @param compares compareTo calls made above t, reported to Metrics.
      * @return node containing the matched item.
      */
-    private boolean contains(AnyType x, BinaryNode<AnyType> t) {
-        if (t == null)
+    private boolean contains(AnyType x, BinaryNode<AnyType> t, int compares) {
+        if (t == null) {
+            if (Metrics.ENABLED)
+                Metrics.treeOperation(compares);
             return false;
+        }
 
         int compareResult = x.compareTo(t.element);
 
         if (compareResult < 0)
-            return contains(x, t.left);
+            return contains(x, t.left, compares + 1);
         else if (compareResult > 0)
-            return contains(x, t.right);
-        else
+            return contains(x, t.right, compares + 1);
+        else {
+            if (Metrics.ENABLED)
+                Metrics.treeOperation(compares + 1);
             return true; // Match
+        }
     }
 
     /**
@@ -216,14 +312,228 @@ public class BinarySearchTree<AnyType extends Comparable<? super AnyType>> {
     }
 
     /**
-     * Internal method to compute height of a subtree.
+     * Internal method to visit a subtree in sorted order.
      *
      * @param t the node that roots the subtree.
      */
-    private int height() {
+    private void forEachInOrder(BinaryNode<AnyType> t, java.util.function.Consumer<? super AnyType> action) {
+        if (t != null) {
+            forEachInOrder(t.left, action);
+            action.accept(t.element);
+            forEachInOrder(t.right, action);
+        }
+    }
+
+    /**
+     * Internal method to visit a subtree, each node before its children.
+     *
+     * @param t the node that roots the subtree.
+     */
+    private void forEachPreOrder(BinaryNode<AnyType> t, java.util.function.Consumer<? super AnyType> action) {
+        if (t != null) {
+            action.accept(t.element);
+            forEachPreOrder(t.left, action);
+            forEachPreOrder(t.right, action);
+        }
+    }
+
+    /**
+     * Internal method to merge sorted, distinct keys[lo..hi-1] into a subtree.
+     * Keys equal to t.element are duplicates; the rest are split between
+     * the children by one binary search.
+     *
+     * @param added its one element counts the keys that were new.
+     * @return the new root of the subtree.
+     */
+    private BinaryNode<AnyType> insertAll(AnyType[] keys, int lo, int hi, BinaryNode<AnyType> t, int[] added) {
+        if (lo >= hi)
+            return t;
+        if (t == null) {
+            added[0] += hi - lo;
+            return build(keys, lo, hi);
+        }
+
+        int p = java.util.Arrays.binarySearch(keys, lo, hi, t.element);
+        int leftEnd = p >= 0 ? p : -p - 1;
+        int rightStart = p >= 0 ? p + 1 : leftEnd;
+        t.left = insertAll(keys, lo, leftEnd, t.left, added);
+        t.right = insertAll(keys, rightStart, hi, t.right, added);
+        return t;
+    }
+
+    /**
+     * Internal method to remove sorted, distinct keys[lo..hi-1] from a subtree.
+     *
+     * @param removed its one element counts the keys that were present.
+     * @return the new root of the subtree.
+     */
+    private BinaryNode<AnyType> removeAll(AnyType[] keys, int lo, int hi, BinaryNode<AnyType> t, int[] removed) {
+        if (lo >= hi || t == null)
+            return t;
+
+        int p = java.util.Arrays.binarySearch(keys, lo, hi, t.element);
+        int leftEnd = p >= 0 ? p : -p - 1;
+        int rightStart = p >= 0 ? p + 1 : leftEnd;
+        t.left = removeAll(keys, lo, leftEnd, t.left, removed);
+        t.right = removeAll(keys, rightStart, hi, t.right, removed);
+        if (p < 0)
+            return t;
+
+        removed[0]++;
+        if (t.left != null && t.right != null) // Two children
+        {
+            t.element = findMin(t.right).element;
+            t.right = removeMin(t.right);
+            return t;
+        }
+        return (t.left != null) ? t.left : t.right;
+    }
+
+    /**
+     * Internal method to remove the smallest item from a subtree.
+     *
+     * @return the new root of the subtree.
+     */
+    private BinaryNode<AnyType> removeMin(BinaryNode<AnyType> t) {
+        if (t.left == null)
+            return t.right;
+        t.left = removeMin(t.left);
+        return t;
+    }
+
+    /**
+     * Internal method to build a balanced subtree from sorted items[lo..hi-1].
+     *
+     * @return the root of the new subtree.
+     */
+    private static <AnyType> BinaryNode<AnyType> build(AnyType[] items, int lo, int hi) {
+        if (lo >= hi)
+            return null;
+        int mid = (lo + hi) >>> 1;
+        return new BinaryNode<>(items[mid], build(items, lo, mid), build(items, mid + 1, hi));
+    }
+
+    /**
+     * Internal method to count the nodes of a subtree, giving up once the
+     * count passes limit, so it costs O(min(size, limit)).
+     *
+     * @return the size of the subtree, or some number above limit.
+     */
+    private static int sizeAtMost(BinaryNode<?> t, int limit) {
+        if (t == null)
+            return 0;
+        int n = 1 + sizeAtMost(t.left, limit);
+        if (n > limit)
+            return n;
+        return n + sizeAtMost(t.right, limit - n);
+    }
+
+    /**
+     * Internal method to rebuild a balanced subtree from the sorted
+     * nodes[lo..hi-1], reusing the nodes.
+     *
+     * @return the root of the new subtree.
+     */
+    private static <AnyType> BinaryNode<AnyType> link(BinaryNode<AnyType>[] nodes, int lo, int hi) {
+        if (lo >= hi)
+            return null;
+        int mid = (lo + hi) >>> 1;
+        BinaryNode<AnyType> t = nodes[mid];
+        t.left = link(nodes, lo, mid);
+        t.right = link(nodes, mid + 1, hi);
+        return t;
+    }
+
+    /**
+     * Internal method to list the nodes of the tree in sorted order.
+     */
+    @SuppressWarnings("unchecked")
+    private BinaryNode<AnyType>[] nodes() {
+        java.util.ArrayList<BinaryNode<AnyType>> nodes = new java.util.ArrayList<>();
+        nodes(root, nodes);
+        return nodes.toArray((BinaryNode<AnyType>[]) new BinaryNode<?>[nodes.size()]);
+    }
+
+    private void nodes(BinaryNode<AnyType> t, java.util.List<BinaryNode<AnyType>> nodes) {
+        if (t != null) {
+            nodes(t.left, nodes);
+            nodes.add(t);
+            nodes(t.right, nodes);
+        }
+    }
+
+    /**
+     * Internal method to sort a batch and drop its duplicates.
+     */
+    @SuppressWarnings("unchecked")
+    private static <AnyType extends Comparable<? super AnyType>> AnyType[] sortedUnique(
+            java.util.Collection<? extends AnyType> xs) {
+        AnyType[] keys = xs.toArray((AnyType[]) new Comparable<?>[xs.size()]);
+        java.util.Arrays.sort(keys);
+
+        int n = 0;
+        for (int i = 0; i < keys.length; i++)
+            if (n == 0 || keys[n - 1].compareTo(keys[i]) != 0)
+                keys[n++] = keys[i];
+        return java.util.Arrays.copyOf(keys, n);
+    }
+
+    /**
+     * Internal method to merge sorted, distinct keys into the sorted nodes,
+     * making a new node for each key that is not already there.
+     */
+    private static <AnyType extends Comparable<? super AnyType>> BinaryNode<AnyType>[] merge(
+            BinaryNode<AnyType>[] nodes, AnyType[] keys) {
+        BinaryNode<AnyType>[] result = java.util.Arrays.copyOf(nodes, nodes.length + keys.length);
+        int i = 0, j = 0, n = 0;
+        while (i < nodes.length && j < keys.length) {
+            int c = nodes[i].element.compareTo(keys[j]);
+            if (c <= 0) {
+                result[n++] = nodes[i++];
+                if (c == 0)
+                    j++;
+            } else
+                result[n++] = new BinaryNode<>(keys[j++]);
+        }
+        while (i < nodes.length)
+            result[n++] = nodes[i++];
+        while (j < keys.length)
+            result[n++] = new BinaryNode<>(keys[j++]);
+        return java.util.Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Internal method to return the sorted nodes whose items are not
+     * among the sorted, distinct keys.
+     */
+    private static <AnyType extends Comparable<? super AnyType>> BinaryNode<AnyType>[] subtract(
+            BinaryNode<AnyType>[] nodes, AnyType[] keys) {
+        BinaryNode<AnyType>[] result = java.util.Arrays.copyOf(nodes, nodes.length);
+        int j = 0, n = 0;
+        for (int i = 0; i < nodes.length; i++) {
+            while (j < keys.length && keys[j].compareTo(nodes[i].element) < 0)
+                j++;
+            if (j == keys.length || keys[j].compareTo(nodes[i].element) != 0)
+                result[n++] = nodes[i];
+        }
+        return java.util.Arrays.copyOf(result, n);
+    }
+
+    /**
+     * Compute the height of the tree: the number of edges on its longest
+     * path from the root. Takes time linear in the size of the tree.
+     *
+     * @return the height, or -1 if empty.
+     */
+    public int height() {
         return height(root);
     }
 
+    /**
+     * Internal method to compute height of a subtree.
+     *
+     * @param t the node that roots the subtree.
+     */
     private int height(BinaryNode<AnyType> t) {
         if (t == null)
             return -1;
@@ -0,0 +1,408 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * BracketValidator checks that the delimiters in a text are balanced and
+ * properly nested; every other character is ignored.
+ * Input can be a CharSequence (String, CharBuffer, ...), a Reader, or a
+ * file that is memory-mapped and scanned byte by byte. Scanning does not
+ * allocate per character: delimiters are looked up in a table and open
+ * delimiters are kept on a CharStack.
+ * The parallel mode cuts the input into chunks, reduces each chunk on a
+ * fork-join pool to its unmatched closers and unmatched openers, and
+ * combines the chunk summaries left to right.
+ * Every validate method returns VALID or the offset of the first error:
+ * an unmatched or mismatched closer, or the input length if some opener
+ * is never closed.
+ */
+public class BracketValidator
+{
+    /**
+     * Construct a validator for (), [] and {}.
+     */
+    public BracketValidator( )
+    {
+        this( "()[]{}" );
+    }
+
+    /**
+     * Construct a validator for a custom delimiter table.
+     * @param pairs open/close characters, one pair after the other, e.g. "()<>".
+     * @throws IllegalArgumentException if pairs has odd length, reuses a
+     *         character, or has more than MAX_PAIRS pairs.
+     */
+    public BracketValidator( String pairs )
+    {
+        if( pairs.length( ) % 2 != 0 || pairs.length( ) / 2 > MAX_PAIRS )
+            throw new IllegalArgumentException( "bad delimiter table: " + pairs );
+
+        kinds = new byte[ Character.MAX_VALUE + 1 ];
+        boolean ascii = true;
+        for( int i = 0; i < pairs.length( ); i += 2 )
+        {
+            char open = pairs.charAt( i ), close = pairs.charAt( i + 1 );
+            if( open == close || kinds[ open ] != 0 || kinds[ close ] != 0 )
+                throw new IllegalArgumentException( "bad delimiter table: " + pairs );
+
+            byte kind = (byte) ( i / 2 + 1 );
+            kinds[ open ] = kind;
+            kinds[ close ] = (byte) -kind;
+            ascii &= open < 0x80 && close < 0x80;
+        }
+        this.ascii = ascii;
+    }
+
+    /**
+     * Convenience test for small inputs.
+     * @return true if s is balanced.
+     */
+    public boolean isBalanced( CharSequence s )
+    {
+        return validate( s ) == VALID;
+    }
+
+    /**
+     * Validate a CharSequence.
+     * @return VALID or the offset of the first error.
+     */
+    public long validate( CharSequence s )
+    {
+        Summary sum = new Summary( true );
+        sum.scan( s, 0, s.length( ) );
+        return sum.result( s.length( ) );
+    }
+
+    /**
+     * Validate everything a Reader produces, reading it in blocks.
+     * The reader is not closed.
+     * @return VALID or the offset (in chars) of the first error.
+     */
+    public long validate( Reader in ) throws IOException
+    {
+        Summary sum = new Summary( true );
+        char [ ] buf = new char[ BLOCK_SIZE ];
+        long base = 0;
+
+        for( int n; ( n = in.read( buf ) ) != -1 && sum.error == VALID; base += n )
+            sum.scan( buf, n, base );
+        return sum.result( base );
+    }
+
+    /**
+     * Validate a file by memory-mapping it. Bytes are taken as chars, so
+     * this is only meaningful for ASCII delimiters in an ASCII-compatible
+     * encoding such as UTF-8 (multi-byte sequences never contain ASCII bytes).
+     * @return VALID or the offset (in bytes) of the first error.
+     * @throws UnsupportedOperationException if a delimiter is not ASCII.
+     */
+    public long validate( Path file ) throws IOException
+    {
+        requireAscii( );
+        try( FileChannel ch = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            long length = ch.size( );
+            Summary sum = new Summary( true );
+
+            for( long base = 0; base < length && sum.error == VALID; base += MAP_SIZE )
+            {
+                int len = (int) Math.min( MAP_SIZE, length - base );
+                sum.scan( ch.map( FileChannel.MapMode.READ_ONLY, base, len ), 0, len, base );
+            }
+            return sum.result( length );
+        }
+    }
+
+    /**
+     * Validate a CharSequence in parallel. s must not change meanwhile.
+     * @return VALID or the offset of the first error.
+     */
+    public long validateParallel( CharSequence s, ForkJoinPool pool )
+    {
+        Summary sum = pool.invoke( new ScanTask( ( part, lo, hi ) -> part.scan( s, lo, hi ), 0, s.length( ), true ) );
+        return sum.result( s.length( ) );
+    }
+
+    /**
+     * Validate a memory-mapped file in parallel; see validate( Path ).
+     * @return VALID or the offset (in bytes) of the first error.
+     * @throws UnsupportedOperationException if a delimiter is not ASCII.
+     */
+    public long validateParallel( Path file, ForkJoinPool pool ) throws IOException
+    {
+        requireAscii( );
+        try( FileChannel ch = FileChannel.open( file, StandardOpenOption.READ ) )
+        {
+            long length = ch.size( );
+            Summary sum = new Summary( true );
+
+            for( long base = 0; base < length && sum.error == VALID; base += MAP_SIZE )
+            {
+                final long mapBase = base;
+                final ByteBuffer map = ch.map( FileChannel.MapMode.READ_ONLY, base, Math.min( MAP_SIZE, length - base ) );
+                Summary part = pool.invoke( new ScanTask( ( into, lo, hi ) -> into.scan( map, lo, hi, mapBase ),
+                                                          0, map.capacity( ), base == 0 ) );
+                if( part.overflowed )
+                    sum.scan( map, 0, map.capacity( ), base );
+                else
+                    sum = sum.combine( part );
+            }
+            return sum.result( length );
+        }
+    }
+
+    // Files are scanned as bytes, which only ASCII delimiters map to one to one
+    private void requireAscii( )
+    {
+        if( !ascii )
+            throw new UnsupportedOperationException( "files can only be validated for ASCII delimiters" );
+    }
+
+    /**
+     * Scans [lo, hi) of the input into a summary of the text before it.
+     */
+    private interface ChunkScanner
+    {
+        void scan( Summary into, int lo, int hi );
+    }
+
+    /**
+     * Splits [lo, hi) in halves down to CHUNK_SIZE, scans each chunk
+     * and combines the summaries in order. A half whose summary
+     * overflowed is instead rescanned into the summary of the half
+     * before it, so the result only overflows if that one did.
+     */
+    private class ScanTask extends RecursiveTask<Summary>
+    {
+        private static final long serialVersionUID = 1L;
+
+        ScanTask( ChunkScanner scanner, int lo, int hi, boolean prefix )
+        {
+            this.scanner = scanner; this.lo = lo; this.hi = hi; this.prefix = prefix;
+        }
+
+        protected Summary compute( )
+        {
+            if( hi - lo <= CHUNK_SIZE )
+            {
+                Summary part = new Summary( prefix );
+                scanner.scan( part, lo, hi );
+                return part;
+            }
+
+            int mid = ( lo + hi ) >>> 1;
+            ScanTask right = new ScanTask( scanner, mid, hi, false );
+            right.fork( );
+            Summary first = new ScanTask( scanner, lo, mid, prefix ).compute( );
+            Summary second = right.join( );
+
+            if( first.overflowed || first.error != VALID )
+                return first;
+            if( second.overflowed )
+            {
+                scanner.scan( first, mid, hi );
+                return first;
+            }
+            return first.combine( second );
+        }
+
+        private final ChunkScanner scanner;
+        private final int lo;
+        private final int hi;
+        private final boolean prefix;
+    }
+
+    /**
+     * What a stretch of input leaves unresolved: closers that found no
+     * opener inside it (kind and absolute offset, in order), openers still
+     * waiting for a closer (kinds, innermost on top), and the offset of a
+     * mismatch that no preceding text can repair.
+     * A summary of a prefix of the input keeps no closers: with nothing
+     * before it, an unmatched closer is the error. So a whole-input
+     * summary never grows with the input, only with the nesting depth.
+     * Other summaries keep at most MAX_CLOSERS closers; past that they
+     * are marked overflowed and their text has to be scanned again once
+     * the summary before it is known.
+     * Once error is set or the summary overflows, scanning stops.
+     */
+    private class Summary
+    {
+        Summary( boolean prefix )
+        {
+            this.prefix = prefix;
+        }
+
+        private final boolean prefix;
+        private boolean overflowed = false;
+        private byte [ ] closerKinds = new byte[ 4 ];
+        private long [ ] closerOffsets = new long[ 4 ];
+        private int closers = 0;
+        private CharStack openers = new CharStack( );
+        private long error = VALID;
+
+        void scan( CharSequence s, int lo, int hi )
+        {
+            for( int i = lo; i < hi && error == VALID && !overflowed; i++ )
+            {
+                byte kind = kinds[ s.charAt( i ) ];
+                if( kind != 0 )
+                    accept( kind, i );
+            }
+        }
+
+        void scan( char [ ] buf, int len, long base )
+        {
+            for( int i = 0; i < len && error == VALID && !overflowed; i++ )
+            {
+                byte kind = kinds[ buf[ i ] ];
+                if( kind != 0 )
+                    accept( kind, base + i );
+            }
+        }
+
+        void scan( ByteBuffer buf, int lo, int hi, long base )
+        {
+            for( int i = lo; i < hi && error == VALID && !overflowed; i++ )
+            {
+                byte kind = kinds[ buf.get( i ) & 0xFF ];
+                if( kind != 0 )
+                    accept( kind, base + i );
+            }
+        }
+
+        private void accept( byte kind, long offset )
+        {
+            if( kind > 0 )
+                openers.push( (char) kind );
+            else if( openers.isEmpty( ) )
+            {
+                if( prefix )
+                    error = offset;
+                else
+                    addCloser( (byte) -kind, offset );
+            }
+            else if( openers.pop( ) != -kind )
+                error = offset;
+        }
+
+        private void addCloser( byte kind, long offset )
+        {
+            if( closers == MAX_CLOSERS )
+            {
+                overflowed = true;
+                closerKinds = null;
+                closerOffsets = null;
+                return;
+            }
+            if( closers == closerKinds.length )
+            {
+                closerKinds = Arrays.copyOf( closerKinds, closers * 2 );
+                closerOffsets = Arrays.copyOf( closerOffsets, closers * 2 );
+            }
+            closerKinds[ closers ] = kind;
+            closerOffsets[ closers++ ] = offset;
+        }
+
+        /**
+         * Combines this summary with the one for the text that follows it.
+         * The closers of next are matched against the openers of this;
+         * this summary is updated and returned.
+         */
+        Summary combine( Summary next )
+        {
+            if( error != VALID )
+                return this;
+
+            int i = 0;
+            for( ; i < next.closers && !openers.isEmpty( ); i++ )
+                if( openers.pop( ) != next.closerKinds[ i ] )
+                {
+                    error = next.closerOffsets[ i ];
+                    return this;
+                }
+
+            if( i < next.closers && prefix )
+            {
+                error = next.closerOffsets[ i ];
+                return this;
+            }
+            for( ; i < next.closers && !overflowed; i++ )
+                addCloser( next.closerKinds[ i ], next.closerOffsets[ i ] );
+            if( overflowed )
+                return this;
+
+            if( next.openers.size( ) > 0 )
+            {
+                char [ ] rest = new char[ next.openers.size( ) ];
+                for( int k = rest.length - 1; k >= 0; k-- )
+                    rest[ k ] = next.openers.pop( );
+                for( char kind : rest )
+                    openers.push( kind );
+            }
+            error = next.error;
+            return this;
+        }
+
+        /**
+         * Interprets the summary of the whole input, a prefix summary.
+         */
+        long result( long length )
+        {
+            if( error != VALID )
+                return error;
+            return openers.isEmpty( ) ? VALID : length;
+        }
+    }
+
+    public static final long VALID = -1;
+    public static final int MAX_PAIRS = 127;
+
+    private static final int BLOCK_SIZE = 1 << 16;
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int MAX_CLOSERS = 1 << 16;
+    private static final long MAP_SIZE = 1L << 30;
+
+    private final byte [ ] kinds;   // +k for the opener of pair k, -k for its closer
+    private final boolean ascii;    // every delimiter is below 0x80
+
+    public static void main( String [ ] args ) throws IOException
+    {
+        BracketValidator v = new BracketValidator( );
+        String [ ] samples = { "[({}{})]", "[(])", "(()", "())", "{\"a\": [1, 2, {\"b\": null}]}" };
+
+        for( String s : samples )
+            System.out.println( s + " -> " + v.validate( s ) );
+
+        int depth = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 1000000;
+        Path tmp = java.nio.file.Files.createTempFile( "brackets", ".json" );
+        try
+        {
+            try( java.io.Writer w = java.nio.file.Files.newBufferedWriter( tmp ) )
+            {
+                for( int i = 0; i < depth; i++ )
+                    w.write( "{\"k\": [1, 2, (3)], \"v\": " );
+                w.write( "0" );
+                for( int i = 0; i < depth; i++ )
+                    w.write( "}" );
+            }
+
+            long t0 = System.nanoTime( );
+            long seq = v.validate( tmp );
+            long t1 = System.nanoTime( );
+            long par = v.validateParallel( tmp, ForkJoinPool.commonPool( ) );
+            long t2 = System.nanoTime( );
+            System.out.printf( "%d bytes: sequential %d in %.1f ms, parallel %d in %.1f ms%n",
+                               java.nio.file.Files.size( tmp ), seq, ( t1 - t0 ) / 1e6, par, ( t2 - t1 ) / 1e6 );
+        }
+        finally
+        {
+            java.nio.file.Files.delete( tmp );
+        }
+    }
+}
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+/**
+ * CharStack class implements a stack of primitive chars.
+ * Same operations as MyStack, backed by a char array, nothing boxed.
+ */
+public class CharStack implements Iterable<Character>
+{
+    public CharStack( )
+    {
+        clear( );
+    }
+
+    public int size( )
+    {
+        return theSize;
+    }
+
+    public boolean isEmpty( )
+    {
+        return size( ) == 0;
+    }
+
+    /**
+     * Returns the top item without removing it.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public char top( )
+    {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+        return theItems[ size( ) - 1 ];
+    }
+
+    public void ensureCapacity( int newCapacity )
+    {
+        if( newCapacity < theSize )
+            return;
+
+        theItems = Arrays.copyOf( theItems, newCapacity );
+    }
+
+    public void push( char x )
+    {
+        if( theItems.length == size( ) )
+            ensureCapacity( grownCapacity( ) );
+
+        theItems[ theSize++ ] = x;
+    }
+
+    // Doubles in long so that a stack past 2^30 items does not overflow
+    private int grownCapacity( )
+    {
+        if( size( ) >= MAX_CAPACITY )
+            throw new OutOfMemoryError( "CharStack is full" );
+        return (int) Math.min( size( ) * 2L + 1, MAX_CAPACITY );
+    }
+
+    /**
+     * Removes and returns the top item.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public char pop( )
+    {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+        return theItems[ --theSize ];
+    }
+
+    public void clear( )
+    {
+        theSize = 0;
+        theItems = new char[ DEFAULT_CAPACITY ];
+    }
+
+    /**
+     * Obtains an iterator over the items, from bottom to top.
+     * There is no primitive iterator for chars; use chars( ) to avoid boxing.
+     */
+    public java.util.Iterator<Character> iterator( )
+    {
+        return new java.util.Iterator<Character>( )
+        {
+            private final java.util.PrimitiveIterator.OfInt itr = chars( );
+
+            public boolean hasNext( )
+            {
+                return itr.hasNext( );
+            }
+
+            public Character next( )
+            {
+                return (char) itr.nextInt( );
+            }
+        };
+    }
+
+    /**
+     * Obtains an unboxed iterator over the items, from bottom to top.
+     * As with String.chars( ), the chars come back as ints.
+     */
+    public java.util.PrimitiveIterator.OfInt chars( )
+    {
+        return new CharStackIterator( );
+    }
+
+    private class CharStackIterator implements java.util.PrimitiveIterator.OfInt
+    {
+        private int current = 0;
+
+        public boolean hasNext( )
+        {
+            return current < size( );
+        }
+
+        public int nextInt( )
+        {
+            if( !hasNext( ) )
+                throw new java.util.NoSuchElementException( );
+
+            return theItems[ current++ ];
+        }
+    }
+
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private char [ ] theItems;
+    private int theSize;
+}
@@ -0,0 +1,429 @@
+import java.util.Arrays;
+
+/**
+ * IntLinkedList class implements a doubly-linked list of primitive ints.
+ * Instead of one Node object per item, the values and the prev/next links
+ * live in parallel arrays and a link is just a slot number, so an item
+ * costs 12 bytes and nothing is boxed. Slots 0 and 1 are the beginMarker
+ * and endMarker; slots freed by removals are chained on a free list and
+ * reused before the arrays are grown.
+ */
+public class IntLinkedList implements Iterable<Integer>
+{
+    /**
+     * Construct an empty IntLinkedList.
+     */
+    public IntLinkedList( )
+    {
+        clear( );
+    }
+
+    /**
+     * Change the size of this collection to zero.
+     */
+    public void clear( )
+    {
+        values = new int[ DEFAULT_CAPACITY ];
+        prev = new int[ DEFAULT_CAPACITY ];
+        next = new int[ DEFAULT_CAPACITY ];
+        next[ BEGIN ] = END;
+        prev[ END ] = BEGIN;
+        top = 2;
+        freeList = NIL;
+
+        theSize = 0;
+        modCount++;
+    }
+
+    /**
+     * Returns the number of items in this collection.
+     * @return the number of items in this collection.
+     */
+    public int size( )
+    {
+        return theSize;
+    }
+
+    public boolean isEmpty( )
+    {
+        return size( ) == 0;
+    }
+
+    /**
+     * Adds an item to this collection, at the end.
+     * @param x any int.
+     * @return true.
+     */
+    public boolean add( int x )
+    {
+        addBefore( END, x );
+        return true;
+    }
+
+    /**
+     * Adds an item to this collection, at specified position.
+     * Items at or after that position are slid one position higher.
+     * @param x any int.
+     * @param idx position to add at.
+     * @throws IndexOutOfBoundsException if idx is not between 0 and size(), inclusive.
+     */
+    public void add( int idx, int x )
+    {
+        addBefore( getNode( idx, 0, size( ) ), x );
+    }
+
+    /**
+     * Returns the item at position idx.
+     * @param idx the index to search in.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public int get( int idx )
+    {
+        return values[ getNode( idx ) ];
+    }
+
+    /**
+     * Changes the item at position idx.
+     * @param idx the index to change.
+     * @param newVal the new value.
+     * @return the old value.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public int set( int idx, int newVal )
+    {
+        int p = getNode( idx );
+        int oldVal = values[ p ];
+
+        values[ p ] = newVal;
+        return oldVal;
+    }
+
+    /**
+     * Removes an item from this collection.
+     * @param idx the index of the item.
+     * @return the item was removed from the collection.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public int remove( int idx )
+    {
+        return unlink( getNode( idx ) );
+    }
+
+    /**
+     * Swaps the items at positions idx1 and idx2.
+     * @throws IndexOutOfBoundsException if either index is out of range.
+     */
+    public void swap( int idx1, int idx2 )
+    {
+        int i = getNode( idx1 );
+        int j = getNode( idx2 );
+        int temp = values[ i ];
+        values[ i ] = values[ j ];
+        values[ j ] = temp;
+    }
+
+    /**
+     * Rotates the list: a positive x moves the first x items to the end,
+     * a negative x moves the last -x items to the front.
+     * Only the links around the new first item are rewritten.
+     */
+    public void shift( int x )
+    {
+        int n = size( );
+        if( n == 0 )
+            return;
+
+        int k = x % n;
+        if( k < 0 )
+            k += n;
+        if( k == 0 )
+            return;
+
+        int first = next[ BEGIN ], last = prev[ END ];
+        int newFirst = getNode( k ), newLast = prev[ newFirst ];
+
+        link( last, first );
+        link( BEGIN, newFirst );
+        link( newLast, END );
+        modCount++;
+    }
+
+    /**
+     * Removes n items starting at position idx.
+     * @throws IndexOutOfBoundsException if the range is not inside the list.
+     */
+    public void erase( int idx, int n )
+    {
+        if( n < 0 || idx < 0 || idx > size( ) - n )
+            throw new IndexOutOfBoundsException( "erase index: " + idx + "; count: " + n + "; size: " + size( ) );
+
+        int p = getNode( idx, 0, size( ) );
+        int before = prev[ p ];
+        for( int i = 0; i < n; i++ )
+        {
+            int following = next[ p ];
+            free( p );
+            p = following;
+        }
+        link( before, p );
+
+        theSize -= n;
+        modCount++;
+    }
+
+    /**
+     * Inserts a copy of all items of list at position idx, in order.
+     * @throws IndexOutOfBoundsException if idx is not between 0 and size(), inclusive.
+     */
+    public void insertList( int idx, IntLinkedList list )
+    {
+        int p = getNode( idx, 0, size( ) );
+
+        if( list == this )
+        {
+            for( int x : toArray( ) )
+                addBefore( p, x );
+            return;
+        }
+
+        for( int q = list.next[ BEGIN ]; q != END; q = list.next[ q ] )
+            addBefore( p, list.values[ q ] );
+    }
+
+    /**
+     * Returns the items of this collection, in order, in a new array.
+     */
+    public int [ ] toArray( )
+    {
+        int [ ] result = new int[ size( ) ];
+        int i = 0;
+
+        for( int p = next[ BEGIN ]; p != END; p = next[ p ] )
+            result[ i++ ] = values[ p ];
+        return result;
+    }
+
+    /**
+     * Returns a String representation of this collection.
+     */
+    public String toString( )
+    {
+        StringBuilder sb = new StringBuilder( "[ " );
+
+        for( int p = next[ BEGIN ]; p != END; p = next[ p ] )
+            sb.append( values[ p ] ).append( ' ' );
+        sb.append( "]" );
+
+        return new String( sb );
+    }
+
+    /**
+     * Obtains an Iterator object used to traverse the collection.
+     * Use nextInt( ) to avoid boxing.
+     * @return an iterator positioned prior to the first element.
+     */
+    public java.util.PrimitiveIterator.OfInt iterator( )
+    {
+        return new IntLinkedListIterator( );
+    }
+
+    /**
+     * This is the implementation of the IntLinkedListIterator.
+     * It fails fast if the list is structurally modified other than
+     * through its own remove.
+     */
+    private class IntLinkedListIterator implements java.util.PrimitiveIterator.OfInt
+    {
+        private int current = next[ BEGIN ];
+        private boolean okToRemove = false;
+        private int expectedModCount = modCount;
+
+        public boolean hasNext( )
+        {
+            return current != END;
+        }
+
+        public int nextInt( )
+        {
+            if( modCount != expectedModCount )
+                throw new java.util.ConcurrentModificationException( );
+            if( !hasNext( ) )
+                throw new java.util.NoSuchElementException( );
+
+            int nextItem = values[ current ];
+            current = next[ current ];
+            okToRemove = true;
+            return nextItem;
+        }
+
+        public void remove( )
+        {
+            if( modCount != expectedModCount )
+                throw new java.util.ConcurrentModificationException( );
+            if( !okToRemove )
+                throw new IllegalStateException( );
+
+            IntLinkedList.this.unlink( prev[ current ] );
+            okToRemove = false;
+            expectedModCount++;
+        }
+    }
+
+    /**
+     * Adds x in a fresh slot just before slot p.
+     */
+    private void addBefore( int p, int x )
+    {
+        int newNode = allocate( );
+        values[ newNode ] = x;
+        link( prev[ p ], newNode );
+        link( newNode, p );
+        theSize++;
+        modCount++;
+    }
+
+    /**
+     * Unlinks slot p and returns its slot to the free list.
+     * @return the item that was stored in p.
+     */
+    private int unlink( int p )
+    {
+        int x = values[ p ];
+        link( prev[ p ], next[ p ] );
+        free( p );
+        theSize--;
+        modCount++;
+
+        return x;
+    }
+
+    /**
+     * Gets the slot at position idx, which must range from 0 to size( ) - 1.
+     * @throws IndexOutOfBoundsException if idx is not between 0 and size( ) - 1, inclusive.
+     */
+    private int getNode( int idx )
+    {
+        return getNode( idx, 0, size( ) - 1 );
+    }
+
+    /**
+     * Gets the slot at position idx, which must range from lower to upper.
+     * Position size( ) is the endMarker.
+     * @throws IndexOutOfBoundsException if idx is not between lower and upper, inclusive.
+     */
+    private int getNode( int idx, int lower, int upper )
+    {
+        int p;
+
+        if( idx < lower || idx > upper )
+            throw new IndexOutOfBoundsException( "getNode index: " + idx + "; size: " + size( ) );
+
+        if( idx < size( ) / 2 )
+        {
+            p = next[ BEGIN ];
+            for( int i = 0; i < idx; i++ )
+                p = next[ p ];
+        }
+        else
+        {
+            p = END;
+            for( int i = size( ); i > idx; i-- )
+                p = prev[ p ];
+        }
+
+        return p;
+    }
+
+    private void link( int a, int b )
+    {
+        next[ a ] = b;
+        prev[ b ] = a;
+    }
+
+    /**
+     * Takes a slot off the free list, or a new one off the end of the arrays.
+     */
+    private int allocate( )
+    {
+        if( freeList != NIL )
+        {
+            int p = freeList;
+            freeList = next[ p ];
+            return p;
+        }
+
+        if( top == values.length )
+            ensureCapacity( top + ( top >> 1 ) + 1 );
+        return top++;
+    }
+
+    private void free( int p )
+    {
+        next[ p ] = freeList;
+        freeList = p;
+    }
+
+    /**
+     * Grows the slot arrays to hold newCapacity slots, markers included.
+     */
+    private void ensureCapacity( int newCapacity )
+    {
+        if( newCapacity < 0 || newCapacity > MAX_CAPACITY )
+            newCapacity = MAX_CAPACITY;
+        if( newCapacity <= values.length )
+            throw new OutOfMemoryError( "IntLinkedList is full" );
+
+        values = Arrays.copyOf( values, newCapacity );
+        prev = Arrays.copyOf( prev, newCapacity );
+        next = Arrays.copyOf( next, newCapacity );
+    }
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final int BEGIN = 0;
+    private static final int END = 1;
+    private static final int NIL = -1;
+
+    private int theSize;
+    private int modCount = 0;
+    private int [ ] values;
+    private int [ ] prev;
+    private int [ ] next;
+    private int top;        // first never-used slot
+    private int freeList;   // head of the chain of freed slots, through next
+
+    public static void main( String [ ] args )
+    {
+        IntLinkedList lst = new IntLinkedList( );
+
+        for( int i = 1; i <= 10; i++ )
+            lst.add( i );
+        System.out.println( lst );
+
+        System.out.println( "******SWAP FUNCTION******" );
+        lst.swap( 1, 2 );
+        System.out.println( lst );
+
+        System.out.println( "******SHIFT FUNCTION******" );
+        lst.shift( 3 );
+        System.out.println( lst );
+
+        System.out.println( "******ERASE FUNCTION******" );
+        lst.erase( 3, 5 );
+        System.out.println( lst );
+
+        IntLinkedList insrtLst = new IntLinkedList( );
+        for( int i = 40; i < 50; i++ )
+            insrtLst.add( i );
+
+        System.out.println( "******INSERT LIST FUNCTION******" );
+        lst.insertList( 3, insrtLst );
+        System.out.println( lst );
+
+        System.out.println( "******SUM VIA PRIMITIVE ITERATOR******" );
+        long sum = 0;
+        for( java.util.PrimitiveIterator.OfInt itr = lst.iterator( ); itr.hasNext( ); )
+            sum += itr.nextInt( );
+        System.out.println( sum );
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * LatencyHistogram records latencies in nanoseconds and reports
+ * percentiles. Exact counts are kept for latencies under LIMIT ns; the
+ * rare slower ones are kept individually.
+ */
+class LatencyHistogram
+{
+    void record( long ns )
+    {
+        if( ns < LIMIT )
+            counts[ (int) ns ]++;
+        else
+            slow.push( ns );
+        max = Math.max( max, ns );
+        total++;
+    }
+
+    long percentile( double p )
+    {
+        long rank = (long) Math.ceil( total * p );
+        long seen = 0;
+        for( int i = 0; i < LIMIT; i++ )
+            if( ( seen += counts[ i ] ) >= rank )
+                return i;
+
+        long [ ] rest = new long[ slow.size( ) ];
+        java.util.PrimitiveIterator.OfLong itr = slow.iterator( );
+        for( int i = 0; i < rest.length; i++ )
+            rest[ i ] = itr.nextLong( );
+        java.util.Arrays.sort( rest );
+        return rest[ (int) Math.min( rest.length - 1, rank - seen - 1 ) ];
+    }
+
+    long total( )
+    {
+        return total;
+    }
+
+    long max( )
+    {
+        return max;
+    }
+
+    void print( String name )
+    {
+        System.out.printf( "%s p50 %6d ns  p99 %6d ns  p99.9 %6d ns  p99.99 %8d ns  max %10d ns%n", name,
+                           percentile( 0.5 ), percentile( 0.99 ), percentile( 0.999 ), percentile( 0.9999 ), max );
+    }
+
+    private static final int LIMIT = 1 << 20;
+    private final long [ ] counts = new long[ LIMIT ];
+    private final LongStack slow = new LongStack( );
+    private long total = 0;
+    private long max = 0;
+}
@@ -0,0 +1,108 @@
+import java.util.Arrays;
+
+/**
+ * LongStack class implements a stack of primitive longs.
+ * Same operations as MyStack, backed by a long array, nothing boxed.
+ */
+public class LongStack implements Iterable<Long>
+{
+    public LongStack( )
+    {
+        clear( );
+    }
+
+    public int size( )
+    {
+        return theSize;
+    }
+
+    public boolean isEmpty( )
+    {
+        return size( ) == 0;
+    }
+
+    /**
+     * Returns the top item without removing it.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public long top( )
+    {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+        return theItems[ size( ) - 1 ];
+    }
+
+    public void ensureCapacity( int newCapacity )
+    {
+        if( newCapacity < theSize )
+            return;
+
+        theItems = Arrays.copyOf( theItems, newCapacity );
+    }
+
+    public void push( long x )
+    {
+        if( theItems.length == size( ) )
+            ensureCapacity( grownCapacity( ) );
+
+        theItems[ theSize++ ] = x;
+    }
+
+    // Doubles in long so that a stack past 2^30 items does not overflow
+    private int grownCapacity( )
+    {
+        if( size( ) >= MAX_CAPACITY )
+            throw new OutOfMemoryError( "LongStack is full" );
+        return (int) Math.min( size( ) * 2L + 1, MAX_CAPACITY );
+    }
+
+    /**
+     * Removes and returns the top item.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public long pop( )
+    {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+        return theItems[ --theSize ];
+    }
+
+    public void clear( )
+    {
+        theSize = 0;
+        theItems = new long[ DEFAULT_CAPACITY ];
+    }
+
+    /**
+     * Obtains an iterator over the items, from bottom to top.
+     * Use nextLong( ) to avoid boxing.
+     */
+    public java.util.PrimitiveIterator.OfLong iterator( )
+    {
+        return new LongStackIterator( );
+    }
+
+    private class LongStackIterator implements java.util.PrimitiveIterator.OfLong
+    {
+        private int current = 0;
+
+        public boolean hasNext( )
+        {
+            return current < size( );
+        }
+
+        public long nextLong( )
+        {
+            if( !hasNext( ) )
+                throw new java.util.NoSuchElementException( );
+
+            return theItems[ current++ ];
+        }
+    }
+
+    private static final int DEFAULT_CAPACITY = 10;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private long [ ] theItems;
+    private int theSize;
+}
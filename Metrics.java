@@ -0,0 +1,212 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics collects opt-in counters from BinarySearchTree, MyLinkedList
+ * and MyStack, for a metrics exporter to poll through snapshot( ).
+ * Collection is switched on with -Ddatastructure.metrics=true. ENABLED is
+ * a static final constant, so when it is off the JIT folds every
+ * "if( Metrics.ENABLED )" guard away and the structures run as if they
+ * were not instrumented.
+ * Counters are LongAdders, which stripe updates across cells, so threads
+ * using separate structures do not contend on them.
+ * Histograms have power-of-two buckets: bucket 0 counts 0, bucket b
+ * counts values from 2^(b-1) to 2^b - 1.
+ */
+public final class Metrics
+{
+    public static final boolean ENABLED = Boolean.getBoolean( "datastructure.metrics" );
+
+    public static final int BUCKETS = 33;
+
+    private Metrics( )
+    {
+    }
+
+    /**
+     * Records one BinarySearchTree insert, remove or contains that made
+     * the given number of compareTo calls, one per node it visited: the
+     * depth of the node found, or of the last node passed on a miss, plus
+     * one. A remove of a node with two children adds the walk down to its
+     * successor.
+     */
+    static void treeOperation( int compares )
+    {
+        treeOperations.increment( );
+        treeCompares.add( compares );
+        compareHistogram[ bucket( compares ) ].increment( );
+        maxCompares.accumulate( compares );
+    }
+
+    /**
+     * Records one MyLinkedList.getNode walk of the given number of links.
+     */
+    static void listWalk( int steps )
+    {
+        listWalks.increment( );
+        listSteps.add( steps );
+        walkHistogram[ bucket( steps ) ].increment( );
+    }
+
+    /**
+     * Records one MyStack array reallocation that copied the given number of items.
+     */
+    static void stackResize( int copied )
+    {
+        stackResizes.increment( );
+        stackCopied.add( copied );
+    }
+
+    /**
+     * Zeroes every counter. Updates racing with the reset may be lost.
+     */
+    public static void reset( )
+    {
+        treeOperations.reset( );
+        treeCompares.reset( );
+        maxCompares.reset( );
+        listWalks.reset( );
+        listSteps.reset( );
+        stackResizes.reset( );
+        stackCopied.reset( );
+        for( int i = 0; i < BUCKETS; i++ )
+        {
+            compareHistogram[ i ].reset( );
+            walkHistogram[ i ].reset( );
+        }
+    }
+
+    /**
+     * Reads all counters. Not atomic across counters: a snapshot taken
+     * during updates may be off by the operations in flight.
+     */
+    public static Snapshot snapshot( )
+    {
+        return new Snapshot( );
+    }
+
+    /**
+     * An immutable reading of the counters.
+     */
+    public static final class Snapshot
+    {
+        private Snapshot( )
+        {
+            treeOperations = Metrics.treeOperations.sum( );
+            treeCompares = Metrics.treeCompares.sum( );
+            treeMaxCompares = Metrics.maxCompares.get( );
+            listWalks = Metrics.listWalks.sum( );
+            listSteps = Metrics.listSteps.sum( );
+            stackResizes = Metrics.stackResizes.sum( );
+            stackCopied = Metrics.stackCopied.sum( );
+            compareHistogram = sums( Metrics.compareHistogram );
+            walkHistogram = sums( Metrics.walkHistogram );
+        }
+
+        /** BinarySearchTree insert, remove and contains calls. */
+        public long treeOperations( ) { return treeOperations; }
+        /** compareTo calls made by those operations. */
+        public long treeCompares( ) { return treeCompares; }
+        /**
+         * Most compareTo calls made by one of those operations, on any tree.
+         * It is not a height: it counts nodes, not edges, and covers only
+         * paths taken since the last reset. Use BinarySearchTree.height( )
+         * for the shape of one tree.
+         */
+        public long treeMaxCompares( ) { return treeMaxCompares; }
+        /** compareTo calls per tree operation, by power-of-two bucket. */
+        public long [ ] treeCompareHistogram( ) { return compareHistogram.clone( ); }
+        /** MyLinkedList node lookups by index. */
+        public long listWalks( ) { return listWalks; }
+        /** Links followed by those lookups. */
+        public long listSteps( ) { return listSteps; }
+        /** Links followed per lookup, by power-of-two bucket. */
+        public long [ ] listWalkHistogram( ) { return walkHistogram.clone( ); }
+        /** MyStack array reallocations. */
+        public long stackResizes( ) { return stackResizes; }
+        /** Items copied by those reallocations. */
+        public long stackCopiedItems( ) { return stackCopied; }
+
+        public String toString( )
+        {
+            return "tree: ops=" + treeOperations + " compares=" + treeCompares + " maxCompares=" + treeMaxCompares
+                   + " perOp=" + java.util.Arrays.toString( trim( compareHistogram ) )
+                   + "\nlist: walks=" + listWalks + " steps=" + listSteps
+                   + " walk=" + java.util.Arrays.toString( trim( walkHistogram ) )
+                   + "\nstack: resizes=" + stackResizes + " copied=" + stackCopied;
+        }
+
+        private static long [ ] trim( long [ ] h )
+        {
+            int n = h.length;
+            while( n > 0 && h[ n - 1 ] == 0 )
+                n--;
+            return java.util.Arrays.copyOf( h, n );
+        }
+
+        private static long [ ] sums( LongAdder [ ] h )
+        {
+            long [ ] result = new long[ h.length ];
+            for( int i = 0; i < h.length; i++ )
+                result[ i ] = h[ i ].sum( );
+            return result;
+        }
+
+        private final long treeOperations;
+        private final long treeCompares;
+        private final long treeMaxCompares;
+        private final long listWalks;
+        private final long listSteps;
+        private final long stackResizes;
+        private final long stackCopied;
+        private final long [ ] compareHistogram;
+        private final long [ ] walkHistogram;
+    }
+
+    private static int bucket( int value )
+    {
+        return 32 - Integer.numberOfLeadingZeros( value );
+    }
+
+    private static LongAdder [ ] histogram( )
+    {
+        LongAdder [ ] h = new LongAdder[ BUCKETS ];
+        for( int i = 0; i < BUCKETS; i++ )
+            h[ i ] = new LongAdder( );
+        return h;
+    }
+
+    private static final LongAdder treeOperations = new LongAdder( );
+    private static final LongAdder treeCompares = new LongAdder( );
+    private static final LongAccumulator maxCompares = new LongAccumulator( Math::max, 0 );
+    private static final LongAdder [ ] compareHistogram = histogram( );
+    private static final LongAdder listWalks = new LongAdder( );
+    private static final LongAdder listSteps = new LongAdder( );
+    private static final LongAdder [ ] walkHistogram = histogram( );
+    private static final LongAdder stackResizes = new LongAdder( );
+    private static final LongAdder stackCopied = new LongAdder( );
+
+    // Run with -Ddatastructure.metrics=true
+    public static void main( String [ ] args )
+    {
+        BinarySearchTree<Integer> t = new BinarySearchTree<>( );
+        java.util.Random r = new java.util.Random( 1 );
+        for( int i = 0; i < 100000; i++ )
+            t.insert( r.nextInt( 1000000 ) );
+        for( int i = 0; i < 100000; i++ )
+            t.contains( r.nextInt( 1000000 ) );
+
+        MyLinkedList<Integer> lst = new MyLinkedList<Integer>( );
+        for( int i = 0; i < 10000; i++ )
+            lst.add( i );
+        for( int i = 0; i < 10000; i++ )
+            lst.get( r.nextInt( lst.size( ) ) );
+
+        MyStack<Integer> s = new MyStack<Integer>( );
+        for( int i = 0; i < 1000000; i++ )
+            s.push( i );
+
+        System.out.println( "enabled=" + ENABLED + " height=" + t.height( ) );
+        System.out.println( snapshot( ) );
+    }
+}
@@ -0,0 +1,314 @@
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MyConcurrentDeque class implements a thread-safe, non-blocking deque.
+ * It is the concurrent counterpart of MyLinkedList for producer/consumer use.
+ * Additions and removals at both ends are lock-free, iterators are weakly
+ * consistent (they never throw ConcurrentModificationException and reflect
+ * some state of the deque at or after their creation), and the size is kept
+ * in a LongAdder so that it is cheap to read but only approximate while
+ * other threads are updating the deque.
+ */
+public class MyConcurrentDeque<AnyType> implements Iterable<AnyType>
+{
+    /**
+     * Construct an empty deque.
+     */
+    public MyConcurrentDeque( )
+    {
+        items = new ConcurrentLinkedDeque<Item<AnyType>>( );
+        theSize = new LongAdder( );
+    }
+
+    /**
+     * Remove all items that are present when the call starts.
+     * Items added concurrently may or may not survive the call.
+     */
+    public void clear( )
+    {
+        while( pollFirst( ) != null )
+            ;
+    }
+
+    /**
+     * Returns the approximate number of items in this deque.
+     * The result is exact when no other thread is modifying the deque.
+     * @return the number of items in this deque.
+     */
+    public int size( )
+    {
+        long n = theSize.sum( );
+        if( n < 0 )
+            return 0;
+        return n > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) n;
+    }
+
+    public boolean isEmpty( )
+    {
+        return items.isEmpty( );
+    }
+
+    /**
+     * Adds an item to this deque, at the end.
+     * @param x any non-null object.
+     * @return true.
+     * @throws NullPointerException if x is null.
+     */
+    public boolean add( AnyType x )
+    {
+        addLast( x );
+        return true;
+    }
+
+    /**
+     * Adds an item to the front of this deque.
+     * @param x any non-null object.
+     * @throws NullPointerException if x is null.
+     */
+    public void addFirst( AnyType x )
+    {
+        items.addFirst( new Item<AnyType>( java.util.Objects.requireNonNull( x ) ) );
+        theSize.increment( );
+    }
+
+    /**
+     * Adds an item to the end of this deque.
+     * @param x any non-null object.
+     * @throws NullPointerException if x is null.
+     */
+    public void addLast( AnyType x )
+    {
+        items.addLast( new Item<AnyType>( java.util.Objects.requireNonNull( x ) ) );
+        theSize.increment( );
+    }
+
+    /**
+     * Removes and returns the first item.
+     * @return the first item, or null if the deque is empty.
+     */
+    public AnyType pollFirst( )
+    {
+        for( ; ; )
+        {
+            Item<AnyType> p = items.pollFirst( );
+            if( p == null )
+                return null;
+            if( p.claim( ) )
+            {
+                theSize.decrement( );
+                return p.data;
+            }
+            // An iterator removed it first; take the next one
+        }
+    }
+
+    /**
+     * Removes and returns the last item.
+     * @return the last item, or null if the deque is empty.
+     */
+    public AnyType pollLast( )
+    {
+        for( ; ; )
+        {
+            Item<AnyType> p = items.pollLast( );
+            if( p == null )
+                return null;
+            if( p.claim( ) )
+            {
+                theSize.decrement( );
+                return p.data;
+            }
+        }
+    }
+
+    /**
+     * Returns the first item without removing it.
+     * @return the first item, or null if the deque is empty.
+     */
+    public AnyType peekFirst( )
+    {
+        Item<AnyType> p = items.peekFirst( );
+        return p == null ? null : p.data;
+    }
+
+    /**
+     * Returns the last item without removing it.
+     * @return the last item, or null if the deque is empty.
+     */
+    public AnyType peekLast( )
+    {
+        Item<AnyType> p = items.peekLast( );
+        return p == null ? null : p.data;
+    }
+
+    /**
+     * Returns a String representation of this deque.
+     * Like the iterator, it is only weakly consistent.
+     */
+    public String toString( )
+    {
+        StringBuilder sb = new StringBuilder( "[ " );
+
+        for( AnyType x : this )
+            sb.append( x + " " );
+        sb.append( "]" );
+
+        return new String( sb );
+    }
+
+    /**
+     * Obtains a weakly consistent Iterator used to traverse the deque.
+     * @return an iterator positioned prior to the first item.
+     */
+    public java.util.Iterator<AnyType> iterator( )
+    {
+        return new DequeIterator( );
+    }
+
+    /**
+     * Wraps the underlying weakly consistent iterator so that
+     * removals through it keep the size counter up to date.
+     */
+    private class DequeIterator implements java.util.Iterator<AnyType>
+    {
+        private final java.util.Iterator<Item<AnyType>> itr = items.iterator( );
+        private Item<AnyType> lastReturned;
+
+        public boolean hasNext( )
+        {
+            return itr.hasNext( );
+        }
+
+        public AnyType next( )
+        {
+            lastReturned = itr.next( );
+            return lastReturned.data;
+        }
+
+        /*
+         * Unlinks the very node last returned, not the first equal item.
+         * A concurrent poll may have taken that item already; whichever
+         * claims it first does the decrement, so the count stays exact.
+         */
+        public void remove( )
+        {
+            itr.remove( );
+            if( lastReturned.claim( ) )
+                theSize.decrement( );
+            lastReturned = null;
+        }
+    }
+
+    /**
+     * An item in the deque. It is claimed once, by the poll or iterator
+     * remove that takes it out; the other of two racing removals sees
+     * the claim and leaves the item and the count alone.
+     */
+    private static final class Item<AnyType> extends java.util.concurrent.atomic.AtomicBoolean
+    {
+        Item( AnyType d )
+        {
+            data = d;
+        }
+
+        boolean claim( )
+        {
+            return compareAndSet( false, true );
+        }
+
+        final AnyType data;
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /*
+     * The JDK deque already uses the lock-free doubly-linked node design
+     * (with self-linked removed nodes standing in for the sentinels of
+     * MyLinkedList); its own size() is an O(n) walk, hence theSize.
+     */
+    private final ConcurrentLinkedDeque<Item<AnyType>> items;
+    private final LongAdder theSize;
+
+    // Stress test and throughput benchmark
+    public static void main( String [ ] args ) throws InterruptedException
+    {
+        final int PER_PRODUCER = 200000;
+
+        System.out.println( "******STRESS TEST******" );
+        for( int threads = 1; threads <= 8; threads *= 2 )
+        {
+            MyConcurrentDeque<Integer> dq = new MyConcurrentDeque<Integer>( );
+            boolean ok = stress( dq, threads, threads, PER_PRODUCER );
+            System.out.println( threads + " producers / " + threads + " consumers: "
+                                + ( ok && dq.isEmpty( ) && dq.size( ) == 0 ? "OK" : "FAILED" ) );
+        }
+
+        System.out.println( "******THROUGHPUT (MPMC)******" );
+        for( int threads = 1; threads <= 16; threads *= 2 )
+        {
+            MyConcurrentDeque<Integer> dq = new MyConcurrentDeque<Integer>( );
+            long start = System.nanoTime( );
+            stress( dq, threads, threads, PER_PRODUCER );
+            long elapsed = System.nanoTime( ) - start;
+            long ops = 2L * threads * PER_PRODUCER;
+            System.out.printf( "%2d x %2d threads: %8.2f Mops/s%n",
+                               threads, threads, ops * 1000.0 / elapsed );
+        }
+    }
+
+    /**
+     * Runs producers that add distinct values at both ends and consumers
+     * that poll from both ends, and checks every value is seen exactly once.
+     */
+    private static boolean stress( final MyConcurrentDeque<Integer> dq, int producers,
+                                   int consumers, final int perProducer )
+        throws InterruptedException
+    {
+        final int total = producers * perProducer;
+        final java.util.concurrent.atomic.AtomicIntegerArray seen =
+            new java.util.concurrent.atomic.AtomicIntegerArray( total );
+        final java.util.concurrent.atomic.AtomicInteger consumed =
+            new java.util.concurrent.atomic.AtomicInteger( );
+        Thread [ ] workers = new Thread[ producers + consumers ];
+
+        for( int p = 0; p < producers; p++ )
+        {
+            final int base = p * perProducer;
+            workers[ p ] = new Thread( ( ) -> {
+                for( int i = 0; i < perProducer; i++ )
+                    if( ( i & 1 ) == 0 )
+                        dq.addLast( base + i );
+                    else
+                        dq.addFirst( base + i );
+            } );
+        }
+        for( int c = 0; c < consumers; c++ )
+        {
+            final boolean fromFront = ( c & 1 ) == 0;
+            workers[ producers + c ] = new Thread( ( ) -> {
+                while( consumed.get( ) < total )
+                {
+                    Integer x = fromFront ? dq.pollFirst( ) : dq.pollLast( );
+                    if( x == null )
+                        Thread.onSpinWait( );
+                    else
+                    {
+                        seen.incrementAndGet( x );
+                        consumed.incrementAndGet( );
+                    }
+                }
+            } );
+        }
+
+        for( Thread t : workers )
+            t.start( );
+        for( Thread t : workers )
+            t.join( );
+
+        for( int i = 0; i < total; i++ )
+            if( seen.get( i ) != 1 )
+                return false;
+        return true;
+    }
+}
@@ -0,0 +1,406 @@
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicStampedReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MyConcurrentStack class implements a thread-safe, lock-free stack.
+ * It is a Treiber stack (a linked list whose top is swung with CAS) with
+ * elimination backoff: a thread whose CAS on top fails goes to a random
+ * slot of an elimination array, where a concurrent push and pop can meet
+ * and hand the item over without touching top at all. Under contention
+ * this turns the single hot spot into many.
+ * Items may not be null, since pop uses null to report an empty stack.
+ */
+public class MyConcurrentStack<AnyType>
+{
+    /**
+     * Construct an empty stack with one elimination slot per processor.
+     */
+    public MyConcurrentStack( )
+    {
+        this( Runtime.getRuntime( ).availableProcessors( ) );
+    }
+
+    /**
+     * Construct an empty stack.
+     * @param eliminationSlots size of the elimination array.
+     * @throws IllegalArgumentException if eliminationSlots is not positive.
+     */
+    @SuppressWarnings("unchecked")
+    public MyConcurrentStack( int eliminationSlots )
+    {
+        if( eliminationSlots <= 0 )
+            throw new IllegalArgumentException( "eliminationSlots: " + eliminationSlots );
+
+        elimination = (Exchanger<AnyType> [ ]) new Exchanger<?>[ eliminationSlots ];
+        for( int i = 0; i < eliminationSlots; i++ )
+            elimination[ i ] = new Exchanger<AnyType>( );
+    }
+
+    /**
+     * Returns the approximate number of items in this stack.
+     * The result is exact when no other thread is modifying the stack.
+     */
+    public int size( )
+    {
+        long n = theSize.sum( );
+        if( n < 0 )
+            return 0;
+        return n > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) n;
+    }
+
+    public boolean isEmpty( )
+    {
+        return top.get( ) == null;
+    }
+
+    /**
+     * Returns the top item without removing it.
+     * @return the top item, or null if the stack is empty.
+     */
+    public AnyType top( )
+    {
+        Node<AnyType> t = top.get( );
+        return t == null ? null : t.data;
+    }
+
+    /**
+     * Pushes an item.
+     * @throws NullPointerException if x is null.
+     */
+    public void push( AnyType x )
+    {
+        if( x == null )
+            throw new NullPointerException( );
+
+        Node<AnyType> newNode = new Node<AnyType>( x );
+        for( ; ; )
+        {
+            Node<AnyType> oldTop = top.get( );
+            newNode.next = oldTop;
+            if( top.compareAndSet( oldTop, newNode ) )
+            {
+                theSize.increment( );
+                return;
+            }
+
+            // A null back means a popper took x
+            if( randomSlot( ).exchange( x ) == null )
+                return;
+        }
+    }
+
+    /**
+     * Removes and returns the top item.
+     * @return the top item, or null if the stack is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public AnyType pop( )
+    {
+        for( ; ; )
+        {
+            Node<AnyType> oldTop = top.get( );
+            if( oldTop == null )
+                return null;
+            if( top.compareAndSet( oldTop, oldTop.next ) )
+            {
+                theSize.decrement( );
+                return oldTop.data;
+            }
+
+            Object other = randomSlot( ).exchange( null );
+            if( other != null && other != TIMED_OUT )
+                return (AnyType) other;
+        }
+    }
+
+    private Exchanger<AnyType> randomSlot( )
+    {
+        return elimination[ ThreadLocalRandom.current( ).nextInt( elimination.length ) ];
+    }
+
+    /**
+     * A lock-free exchanger: the first thread parks its item in the slot
+     * and spins briefly; a second thread swaps in its own item and takes
+     * the first one. Pushers offer their item and poppers offer null, so
+     * an exchange is useful only when it pairs one of each.
+     */
+    private static class Exchanger<AnyType>
+    {
+        /**
+         * @return the partner's item, or TIMED_OUT if no partner came.
+         */
+        Object exchange( AnyType myItem )
+        {
+            int [ ] stampHolder = { EMPTY };
+
+            for( int tries = 0; tries < EXCHANGE_SPINS; tries++ )
+            {
+                AnyType yrItem = slot.get( stampHolder );
+                switch( stampHolder[ 0 ] )
+                {
+                  case EMPTY:
+                    if( slot.compareAndSet( yrItem, myItem, EMPTY, WAITING ) )
+                    {
+                        for( int spin = 0; spin < EXCHANGE_SPINS; spin++ )
+                        {
+                            yrItem = slot.get( stampHolder );
+                            if( stampHolder[ 0 ] == BUSY )
+                            {
+                                slot.set( null, EMPTY );
+                                return yrItem;
+                            }
+                            Thread.onSpinWait( );
+                        }
+                        if( slot.compareAndSet( myItem, null, WAITING, EMPTY ) )
+                            return TIMED_OUT;
+
+                        // A partner arrived just as we gave up
+                        yrItem = slot.get( stampHolder );
+                        slot.set( null, EMPTY );
+                        return yrItem;
+                    }
+                    break;
+                  case WAITING:
+                    if( slot.compareAndSet( yrItem, myItem, WAITING, BUSY ) )
+                        return yrItem;
+                    break;
+                  default:    // BUSY: two others are finishing up
+                    Thread.onSpinWait( );
+                    break;
+                }
+            }
+            return TIMED_OUT;
+        }
+
+        private static final int EMPTY = 0;
+        private static final int WAITING = 1;
+        private static final int BUSY = 2;
+
+        private final AtomicStampedReference<AnyType> slot = new AtomicStampedReference<AnyType>( null, EMPTY );
+    }
+
+    private static class Node<AnyType>
+    {
+        Node( AnyType d )
+        {
+            data = d;
+        }
+
+        final AnyType data;
+        Node<AnyType> next;
+    }
+
+    private static final Object TIMED_OUT = new Object( );
+    private static final int EXCHANGE_SPINS = 64;
+
+    private final AtomicReference<Node<AnyType>> top = new AtomicReference<Node<AnyType>>( );
+    private final Exchanger<AnyType> [ ] elimination;
+    private final LongAdder theSize = new LongAdder( );
+
+    // Linearizability stress test and throughput benchmark
+    public static void main( String [ ] args ) throws InterruptedException
+    {
+        System.out.println( "******LINEARIZABILITY******" );
+        int rounds = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 2000;
+        for( int r = 0; r < rounds; r++ )
+            if( !linearizable( 3, 4 ) )
+            {
+                System.out.println( "round " + r + ": history is NOT linearizable" );
+                return;
+            }
+        System.out.println( rounds + " random histories linearizable" );
+
+        System.out.println( "******CONSERVATION******" );
+        System.out.println( conserves( 8, 200000 ) ? "OK" : "FAILED" );
+
+        System.out.println( "******THROUGHPUT (50% push / 50% pop)******" );
+        for( int threads = 1; threads <= 64; threads *= 2 )
+        {
+            double lockFree = throughput( new MyConcurrentStack<Integer>( ), threads );
+            final MyStack<Integer> locked = new MyStack<Integer>( );
+            double sync = throughput( new StackOps( )
+            {
+                public void push( Integer x ) { synchronized( locked ) { locked.push( x ); } }
+                public Integer pop( ) { synchronized( locked ) { return locked.isEmpty( ) ? null : locked.pop( ); } }
+            }, threads );
+            System.out.printf( "%2d threads: MyConcurrentStack %7.2f Mops/s, synchronized MyStack %7.2f Mops/s%n",
+                               threads, lockFree, sync );
+        }
+    }
+
+    private interface StackOps
+    {
+        void push( Integer x );
+        Integer pop( );
+    }
+
+    private static double throughput( final MyConcurrentStack<Integer> s, int threads ) throws InterruptedException
+    {
+        return throughput( new StackOps( )
+        {
+            public void push( Integer x ) { s.push( x ); }
+            public Integer pop( ) { return s.pop( ); }
+        }, threads );
+    }
+
+    // Every thread alternates random pushes and pops for a fixed time
+    private static double throughput( final StackOps s, int threads ) throws InterruptedException
+    {
+        final long duration = 200000000L;
+        final LongAdder ops = new LongAdder( );
+        final Integer item = 1;
+        Thread [ ] workers = new Thread[ threads ];
+
+        for( int t = 0; t < threads; t++ )
+            workers[ t ] = new Thread( ( ) -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current( );
+                long end = System.nanoTime( ) + duration;
+                long n = 0;
+                while( System.nanoTime( ) < end )
+                    for( int i = 0; i < 64; i++, n++ )
+                        if( rnd.nextBoolean( ) )
+                            s.push( item );
+                        else
+                            s.pop( );
+                ops.add( n );
+            } );
+        for( Thread w : workers )
+            w.start( );
+        for( Thread w : workers )
+            w.join( );
+
+        return ops.sum( ) * 1000.0 / duration;
+    }
+
+    // Every pushed value is popped at most once and nothing is lost
+    private static boolean conserves( int threads, final int perThread ) throws InterruptedException
+    {
+        final MyConcurrentStack<Integer> s = new MyConcurrentStack<Integer>( );
+        final java.util.concurrent.atomic.AtomicIntegerArray seen =
+            new java.util.concurrent.atomic.AtomicIntegerArray( threads * perThread );
+        Thread [ ] workers = new Thread[ threads ];
+
+        for( int t = 0; t < threads; t++ )
+        {
+            final int base = t * perThread;
+            workers[ t ] = new Thread( ( ) -> {
+                for( int i = 0; i < perThread; i++ )
+                {
+                    s.push( base + i );
+                    Integer x = s.pop( );
+                    if( x != null )
+                        seen.incrementAndGet( x );
+                }
+            } );
+        }
+        for( Thread w : workers )
+            w.start( );
+        for( Thread w : workers )
+            w.join( );
+
+        for( Integer x; ( x = s.pop( ) ) != null; )
+            seen.incrementAndGet( x );
+        for( int i = 0; i < seen.length( ); i++ )
+            if( seen.get( i ) != 1 )
+                return false;
+        return s.isEmpty( ) && s.size( ) == 0;
+    }
+
+    /**
+     * Runs a short random concurrent history and searches for a sequential
+     * order of its operations that respects real time and the behaviour
+     * of a sequential stack (Wing and Gong's algorithm).
+     */
+    private static boolean linearizable( int threads, final int opsPerThread ) throws InterruptedException
+    {
+        final MyConcurrentStack<Integer> s = new MyConcurrentStack<Integer>( 1 );
+        final AtomicLong clock = new AtomicLong( );
+        final long [ ][ ] calls = new long[ threads * opsPerThread ][ ];   // invoke, response, isPush, value
+        final java.util.concurrent.CyclicBarrier start = new java.util.concurrent.CyclicBarrier( threads );
+        Thread [ ] workers = new Thread[ threads ];
+
+        for( int t = 0; t < threads; t++ )
+        {
+            final int id = t;
+            workers[ t ] = new Thread( ( ) -> {
+                try { start.await( ); } catch( Exception e ) { throw new IllegalStateException( e ); }
+                ThreadLocalRandom rnd = ThreadLocalRandom.current( );
+                for( int i = 0; i < opsPerThread; i++ )
+                {
+                    int k = id * opsPerThread + i;
+                    boolean isPush = rnd.nextBoolean( );
+                    long inv = clock.incrementAndGet( );
+                    long value = k;
+                    if( isPush )
+                        s.push( k );
+                    else
+                        value = nullToMinus( s.pop( ) );
+                    calls[ k ] = new long[ ] { inv, clock.incrementAndGet( ), isPush ? 1 : 0, value };
+                }
+            } );
+        }
+        for( Thread w : workers )
+            w.start( );
+        for( Thread w : workers )
+            w.join( );
+
+        return search( calls, new boolean[ calls.length ], new IntStack( ), 0 );
+    }
+
+    private static long nullToMinus( Integer x )
+    {
+        return x == null ? -1 : x;
+    }
+
+    private static boolean search( long [ ][ ] calls, boolean [ ] done, IntStack model, int count )
+    {
+        if( count == calls.length )
+            return true;
+
+        // Earliest response among pending calls: anything invoked after it cannot go next
+        long horizon = Long.MAX_VALUE;
+        for( int i = 0; i < calls.length; i++ )
+            if( !done[ i ] )
+                horizon = Math.min( horizon, calls[ i ][ 1 ] );
+
+        for( int i = 0; i < calls.length; i++ )
+        {
+            if( done[ i ] || calls[ i ][ 0 ] > horizon )
+                continue;
+
+            long [ ] c = calls[ i ];
+            boolean ok;
+            int popped = 0;
+            if( c[ 2 ] == 1 )
+            {
+                model.push( (int) c[ 3 ] );
+                ok = true;
+            }
+            else if( model.isEmpty( ) )
+                ok = c[ 3 ] == -1;
+            else
+            {
+                ok = model.top( ) == c[ 3 ];
+                if( ok )
+                    popped = model.pop( );
+            }
+
+            if( ok )
+            {
+                done[ i ] = true;
+                if( search( calls, done, model, count + 1 ) )
+                    return true;
+                done[ i ] = false;
+
+                if( c[ 2 ] == 1 )
+                    model.pop( );
+                else if( c[ 3 ] != -1 )
+                    model.push( popped );
+            }
+        }
+        return false;
+    }
+}
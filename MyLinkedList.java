@@ -21,6 +21,7 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType>
         beginMarker.next = endMarker;
         
         theSize = 0;
+        modCount++;
     }
     
     /**
@@ -73,6 +74,7 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType>
         newNode.prev.next = newNode;
         p.prev = newNode;         
         theSize++;
+        modCount++;
     }   
     
     
@@ -128,6 +130,9 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType>
         if( idx < lower || idx > upper )
             throw new IndexOutOfBoundsException( "getNode index: " + idx + "; size: " + size( ) );
             
+        if( Metrics.ENABLED )
+            Metrics.listWalk( idx < size( ) / 2 ? idx : size( ) - idx );
+
         if( idx < size( ) / 2 )
         {
             p = beginMarker.next;
@@ -164,6 +169,7 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType>
         p.next.prev = p.prev;
         p.prev.next = p.next;
         theSize--;
+        modCount++;
         
         return p.data;
     }
@@ -238,18 +244,49 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType>
      */
     public java.util.Iterator<AnyType> iterator( )
     {
-        return new LinkedListIterator( );
+        return new LinkedListIterator( 0 );
+    }
+
+    /**
+     * Obtains a ListIterator object used to traverse and edit the collection.
+     * @return a list iterator positioned prior to the first element.
+     */
+    public java.util.ListIterator<AnyType> listIterator( )
+    {
+        return new LinkedListIterator( 0 );
+    }
+
+    /**
+     * Obtains a ListIterator object positioned prior to the element at idx.
+     * @param idx index of the element returned by the first call to next.
+     * @return a list iterator positioned prior to element idx.
+     * @throws IndexOutOfBoundsException if idx is not between 0 and size(), inclusive.
+     */
+    public java.util.ListIterator<AnyType> listIterator( int idx )
+    {
+        return new LinkedListIterator( idx );
     }
 
     /**
      * This is the implementation of the LinkedListIterator.
      * It maintains a notion of a current position and of
      * course the implicit reference to the MyLinkedList.
+     * The cursor sits between current.prev and current, so add, set
+     * and remove are O(1). Structural changes made other than through
+     * this iterator cause a ConcurrentModificationException.
      */
-    private class LinkedListIterator implements java.util.Iterator<AnyType>
+    private class LinkedListIterator implements java.util.ListIterator<AnyType>
     {
-        private Node<AnyType> current = beginMarker.next;
-        private boolean okToRemove = false;
+        private Node<AnyType> current;
+        private Node<AnyType> lastReturned = null;
+        private int nextIdx;
+        private int expectedModCount = modCount;
+        
+        public LinkedListIterator( int idx )
+        {
+            current = getNode( idx, 0, size( ) );
+            nextIdx = idx;
+        }
         
         public boolean hasNext( )
         {
@@ -258,22 +295,192 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType>
         
         public AnyType next( )
         {
+            checkForComodification( );
             if( !hasNext( ) )
                 throw new java.util.NoSuchElementException( ); 
                    
-            AnyType nextItem = current.data;
+            lastReturned = current;
             current = current.next;
-            okToRemove = true;
-            return nextItem;
+            nextIdx++;
+            return lastReturned.data;
+        }
+        
+        public boolean hasPrevious( )
+        {
+            return current.prev != beginMarker;
+        }
+        
+        public AnyType previous( )
+        {
+            checkForComodification( );
+            if( !hasPrevious( ) )
+                throw new java.util.NoSuchElementException( ); 
+                   
+            current = current.prev;
+            lastReturned = current;
+            nextIdx--;
+            return lastReturned.data;
+        }
+        
+        public int nextIndex( )
+        {
+            return nextIdx;
+        }
+        
+        public int previousIndex( )
+        {
+            return nextIdx - 1;
         }
         
         public void remove( )
         {
-            if( !okToRemove )
+            checkForComodification( );
+            if( lastReturned == null )
                 throw new IllegalStateException( );
                 
-            MyLinkedList.this.remove( current.prev );
-            okToRemove = false;       
+            if( lastReturned == current )    // last call was previous
+                current = current.next;
+            else                             // last call was next
+                nextIdx--;
+            MyLinkedList.this.remove( lastReturned );
+            lastReturned = null;
+            expectedModCount++;
+        }
+        
+        public void set( AnyType x )
+        {
+            checkForComodification( );
+            if( lastReturned == null )
+                throw new IllegalStateException( );
+                
+            lastReturned.data = x;
+        }
+        
+        public void add( AnyType x )
+        {
+            checkForComodification( );
+            
+            addBefore( current, x );
+            nextIdx++;
+            lastReturned = null;
+            expectedModCount++;
+        }
+        
+        private void checkForComodification( )
+        {
+            if( modCount != expectedModCount )
+                throw new java.util.ConcurrentModificationException( );
+        }
+    }
+    
+    /**
+     * Obtains a Spliterator that splits the collection into halves.
+     * It reports its exact size, so parallel streams get balanced subtasks.
+     * @return a fail-fast spliterator over the whole collection.
+     */
+    public java.util.Spliterator<AnyType> spliterator( )
+    {
+        return new LinkedListSpliterator( beginMarker.next, endMarker, size( ) );
+    }
+
+    /**
+     * Returns a sequential Stream over the collection.
+     */
+    public java.util.stream.Stream<AnyType> stream( )
+    {
+        return java.util.stream.StreamSupport.stream( spliterator( ), false );
+    }
+
+    /**
+     * Returns a parallel Stream over the collection.
+     */
+    public java.util.stream.Stream<AnyType> parallelStream( )
+    {
+        return java.util.stream.StreamSupport.stream( spliterator( ), true );
+    }
+
+    /**
+     * This is the implementation of the LinkedListSpliterator.
+     * It covers the est nodes from current up to (not including) fence.
+     * Because the count is exact, a split only has to walk half of the
+     * range to find the middle node, and both halves stay SIZED.
+     * Every method checks modCount before following links, so a list
+     * changed after the spliterator was made fails fast rather than
+     * walking off the end.
+     */
+    private class LinkedListSpliterator implements java.util.Spliterator<AnyType>
+    {
+        private Node<AnyType> current;
+        private final Node<AnyType> fence;
+        private int est;
+        private final int expectedModCount = modCount;
+
+        public LinkedListSpliterator( Node<AnyType> first, Node<AnyType> end, int count )
+        {
+            current = first; fence = end; est = count;
+        }
+
+        public boolean tryAdvance( java.util.function.Consumer<? super AnyType> action )
+        {
+            if( action == null )
+                throw new NullPointerException( );
+            checkForComodification( );
+            if( current == fence )
+                return false;
+
+            AnyType x = current.data;
+            current = current.next;
+            est--;
+            action.accept( x );
+            checkForComodification( );
+            return true;
+        }
+
+        public void forEachRemaining( java.util.function.Consumer<? super AnyType> action )
+        {
+            if( action == null )
+                throw new NullPointerException( );
+
+            checkForComodification( );
+            Node<AnyType> p = current;
+            current = fence;
+            est = 0;
+            for( ; p != fence; p = p.next )
+                action.accept( p.data );
+            checkForComodification( );
+        }
+
+        public java.util.Spliterator<AnyType> trySplit( )
+        {
+            checkForComodification( );    // the walk below trusts est
+            if( est < 2 * MIN_SPLIT )
+                return null;
+
+            int half = est >>> 1;
+            Node<AnyType> mid = current;
+            for( int i = 0; i < half; i++ )
+                mid = mid.next;
+
+            LinkedListSpliterator prefix = new LinkedListSpliterator( current, mid, half );
+            current = mid;
+            est -= half;
+            return prefix;
+        }
+
+        public long estimateSize( )
+        {
+            return est;
+        }
+
+        public int characteristics( )
+        {
+            return ORDERED | SIZED | SUBSIZED;
+        }
+
+        private void checkForComodification( )
+        {
+            if( modCount != expectedModCount )
+                throw new java.util.ConcurrentModificationException( );
         }
     }
     
@@ -292,7 +499,10 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType>
         public Node<AnyType>   next;
     }
     
+    private static final int MIN_SPLIT = 1024;   // smallest half worth a subtask
+
     private int theSize;
+    private int modCount = 0;
     private Node<AnyType> beginMarker;
     private Node<AnyType> endMarker;
 
@@ -326,6 +536,18 @@ public class MyLinkedList<AnyType> implements Iterable<AnyType>
         lst.insertList(3,insrtLst);
         System.out.println(lst);
 
+        System.out.println("******LIST ITERATOR******");
+        java.util.ListIterator<Integer> litr = lst.listIterator( );
+        while( litr.hasNext( ) )
+        {
+            int x = litr.next( );
+            if( x % 2 == 0 )
+                litr.remove( );
+            else
+                litr.add( -x );
+        }
+        System.out.println(lst);
+
         // lst.remove( 0 );
         // lst.remove( lst.size( ) - 1 );
         
@@ -0,0 +1,48 @@
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compares a map-reduce over a MyLinkedList done sequentially, in parallel
+ * with the size-aware MyLinkedList spliterator, and in parallel with the
+ * generic iterator-based spliterator that Iterable provides by default.
+ * Usage: java MyLinkedListStreamBenchmark [size] [rounds]
+ */
+public class MyLinkedListStreamBenchmark
+{
+    public static void main( String [ ] args )
+    {
+        int n = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 10000000;
+        int rounds = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 5;
+
+        MyLinkedList<Integer> lst = new MyLinkedList<Integer>( );
+        for( int i = 0; i < n; i++ )
+            lst.add( i );
+
+        System.out.println( "size=" + n + " threads=" + java.util.concurrent.ForkJoinPool.getCommonPoolParallelism( ) );
+        for( int r = 0; r < rounds; r++ )
+        {
+            long t0 = System.nanoTime( );
+            long seq = lst.stream( ).mapToLong( MyLinkedListStreamBenchmark::work ).sum( );
+            long t1 = System.nanoTime( );
+            long par = lst.parallelStream( ).mapToLong( MyLinkedListStreamBenchmark::work ).sum( );
+            long t2 = System.nanoTime( );
+            long generic = StreamSupport.stream( Spliterators.spliteratorUnknownSize( lst.iterator( ), 0 ), true )
+                                        .mapToLong( MyLinkedListStreamBenchmark::work ).sum( );
+            long t3 = System.nanoTime( );
+
+            if( seq != par || seq != generic )
+                throw new IllegalStateException( "results differ: " + seq + " " + par + " " + generic );
+            System.out.printf( "round %d: sequential %7.1f ms, parallel %7.1f ms, generic parallel %7.1f ms%n",
+                               r, ( t1 - t0 ) / 1e6, ( t2 - t1 ) / 1e6, ( t3 - t2 ) / 1e6 );
+        }
+    }
+
+    // A little arithmetic per element so the reduction is not purely memory bound
+    private static long work( Integer x )
+    {
+        long h = x;
+        for( int i = 0; i < 8; i++ )
+            h = h * 6364136223846793005L + 1442695040888963407L;
+        return h >>> 40;
+    }
+}
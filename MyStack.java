@@ -2,6 +2,23 @@ public class MyStack<AnyType> implements Iterable<AnyType>
 {
     public MyStack( )
     {
+        this( DEFAULT_GROWTH_FACTOR, DEFAULT_SHRINK_OCCUPANCY );
+    }
+
+    /**
+     * Construct a stack with its own capacity policy.
+     * @param growthFactor capacity multiplier when a push finds the array full.
+     * @param shrinkOccupancy a pop that leaves the array less full than this
+     *        shrinks it to size * growthFactor; 0 never shrinks. Must be below
+     *        1 / growthFactor so that a shrink is not undone by the next push.
+     */
+    public MyStack( double growthFactor, double shrinkOccupancy )
+    {
+        if( !( growthFactor > 1 ) || !( shrinkOccupancy >= 0 && shrinkOccupancy * growthFactor < 1 ) )
+            throw new IllegalArgumentException( "growthFactor: " + growthFactor + "; shrinkOccupancy: " + shrinkOccupancy );
+
+        this.growthFactor = growthFactor;
+        this.shrinkOccupancy = shrinkOccupancy;
         clear( );
     }
     
@@ -17,6 +34,8 @@ public class MyStack<AnyType> implements Iterable<AnyType>
     
     public AnyType top( )
     {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
         return theItems[ size() - 1 ];    
     }
         
@@ -26,35 +45,159 @@ public class MyStack<AnyType> implements Iterable<AnyType>
         if( newCapacity < theSize )
             return;
 
-        AnyType [ ] old = theItems;
-        theItems = (AnyType []) new Object[ newCapacity ];
-        for( int i = 0; i < size( ); i++ )
-            theItems[ i ] = old[ i ];
+        if( theItems == null )
+            theItems = (AnyType []) new Object[ newCapacity ];
+        else
+        {
+            if( Metrics.ENABLED )
+                Metrics.stackResize( theSize );
+            theItems = java.util.Arrays.copyOf( theItems, newCapacity );
+        }
+    }
+
+    /**
+     * Shrink the array to exactly the current size.
+     */
+    public void trimToSize( )
+    {
+        if( theItems.length != size( ) )
+            ensureCapacity( size( ) );
     }
 
     public void push( AnyType x )
     {
         if( theItems.length == size( ) )
-            ensureCapacity( size( ) * 2 + 1 );
+            ensureCapacity( grownCapacity( size( ) + 1L ) );
             
         theItems[ size() ] = x;
         theSize++;  
+        modCount++;
+    }
+
+    /**
+     * Pushes items[ 0 ], items[ 1 ], ... in order, with one array copy.
+     */
+    public void pushAll( AnyType [ ] items )
+    {
+        pushAll( items, items.length );
+    }
+
+    /**
+     * Pushes the items of c in iteration order, with one array copy.
+     */
+    public void pushAll( java.util.Collection<? extends AnyType> c )
+    {
+        pushAll( c.toArray( ), c.size( ) );
+    }
+
+    private void pushAll( Object [ ] items, int n )
+    {
+        n = Math.min( n, items.length );    // a concurrently shrunk collection
+        if( theItems.length - size( ) < n )
+            ensureCapacity( grownCapacity( (long) size( ) + n ) );
+
+        System.arraycopy( items, 0, theItems, size( ), n );
+        theSize += n;
+        modCount++;
     }
 
     public void remove( )
     {
-        theSize--;
+        pop( );
     }
     
-    public void pop()
+    /**
+     * Removes and returns the top item. The slot is cleared so that the
+     * stack does not keep the item reachable.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public AnyType pop( )
     {
-        theSize--;
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+
+        AnyType x = theItems[ --theSize ];
+        theItems[ theSize ] = null;
+        modCount++;
+
+        shrinkIfSparse( );
+        return x;
+    }
+
+    /**
+     * Pops up to n items into dest with one array copy. The items keep
+     * their stack order, so the former top ends up last.
+     * @return the number of items popped: the least of n, size( ) and dest.length.
+     */
+    public int popN( int n, AnyType [ ] dest )
+    {
+        int k = Math.min( Math.min( n, size( ) ), dest.length );
+        if( k <= 0 )
+            return 0;
+
+        int from = theSize - k;
+        System.arraycopy( theItems, from, dest, 0, k );
+        java.util.Arrays.fill( theItems, from, theSize, null );
+        theSize = from;
+        modCount++;
+
+        shrinkIfSparse( );
+        return k;
+    }
+
+    /**
+     * Pops every item, top first, and hands it to action. If action
+     * throws, the items it already received stay removed.
+     * @return the number of items drained.
+     */
+    public int drainTo( java.util.function.Consumer<? super AnyType> action )
+    {
+        int n = theSize;
+        int i = n;
+        try
+        {
+            while( i > 0 )
+                action.accept( theItems[ --i ] );
+        }
+        finally
+        {
+            java.util.Arrays.fill( theItems, i, n, null );
+            theSize = i;
+            modCount++;
+            shrinkIfSparse( );
+        }
+        return n - i;
     }
 
     public void clear( )
     {
+        int oldSize = theSize;
         theSize = 0;
-        ensureCapacity( DEFAULT_CAPACITY );
+        modCount++;
+
+        // Reuse a small array; a large one goes unless shrinking is off
+        if( theItems != null && ( theItems.length <= DEFAULT_CAPACITY || shrinkOccupancy == 0 ) )
+            java.util.Arrays.fill( theItems, 0, oldSize, null );
+        else
+        {
+            theItems = null;
+            ensureCapacity( DEFAULT_CAPACITY );
+        }
+    }
+
+    private int grownCapacity( long needed )
+    {
+        if( needed > MAX_CAPACITY )
+            throw new OutOfMemoryError( "MyStack is full" );
+
+        long grown = (long) ( size( ) * growthFactor ) + 1;
+        return (int) Math.min( Math.max( grown, needed ), MAX_CAPACITY );
+    }
+
+    private void shrinkIfSparse( )
+    {
+        if( theItems.length > DEFAULT_CAPACITY && theSize < theItems.length * shrinkOccupancy )
+            ensureCapacity( Math.max( DEFAULT_CAPACITY, (int) ( theSize * growthFactor ) ) );
     }
     
     public java.util.Iterator<AnyType> iterator( )
@@ -62,10 +205,16 @@ public class MyStack<AnyType> implements Iterable<AnyType>
         return new ArrayListIterator( );
     }
 
+    /**
+     * Iterates from bottom to top. Fails fast if the stack is changed
+     * other than through the iterator; remove takes out the item last
+     * returned, wherever it is in the stack.
+     */
     private class ArrayListIterator implements java.util.Iterator<AnyType>
     {
         private int current = 0;
         private boolean okToRemove = false;
+        private int expectedModCount = modCount;
         
         public boolean hasNext( )
         {
@@ -75,6 +224,7 @@ public class MyStack<AnyType> implements Iterable<AnyType>
         
         public AnyType next( )
         {
+            checkForComodification( );
             if( !hasNext( ) ) 
                 throw new java.util.NoSuchElementException( ); 
                   
@@ -84,50 +234,60 @@ public class MyStack<AnyType> implements Iterable<AnyType>
         
         public void remove( )
         {
+            checkForComodification( );
             if( !okToRemove )
                 throw new IllegalStateException( );
                 
-            MyStack.this.remove( );
+            int idx = --current;
+            System.arraycopy( theItems, idx + 1, theItems, idx, theSize - idx - 1 );
+            theItems[ --theSize ] = null;
+            expectedModCount = ++modCount;
             okToRemove = false;
         }
+
+        public void forEachRemaining( java.util.function.Consumer<? super AnyType> action )
+        {
+            AnyType [ ] items = theItems;
+            int n = theSize;
+            int i = current;
+
+            while( i < n && modCount == expectedModCount )
+                action.accept( items[ i++ ] );
+            if( i > current )
+                okToRemove = true;
+            current = i;
+            checkForComodification( );
+        }
+
+        private void checkForComodification( )
+        {
+            if( modCount != expectedModCount )
+                throw new java.util.ConcurrentModificationException( );
+        }
     }
     
     private static final int DEFAULT_CAPACITY = 10;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+    private static final double DEFAULT_GROWTH_FACTOR = 2.0;
+    private static final double DEFAULT_SHRINK_OCCUPANCY = 0.25;
     
+    private final double growthFactor;
+    private final double shrinkOccupancy;
     private AnyType [ ] theItems;
     private int theSize;
+    private int modCount = 0;
 
     public static void main( String [ ] args )
     {
-        String [] x = "[({}{})]".split("");
-        MyStack<String> s = new MyStack<String>( );
-        // for( int i = 0; i < x.length; i++) System.out.println(x[i]);
-        boolean isValid = true;
-        for( int i = 0; i < x.length; i++){
-            if(s.isEmpty()) {
-                s.push(x[i]);
-            }
-            else {
-                if(x[i].equals("]") && s.top().equals("[")) {
-                    s.pop();
-                }
-                else if(x[i].equals(")") && s.top().equals("(")) {
-                    s.pop();
-                }
-                else if(x[i].equals("}") && s.top().equals("{")) {
-                    s.pop();
-                }
-                else if(x[i].equals("[") || x[i].equals("(") || x[i].equals("{")){
-                    s.push(x[i]);
-                }
-                else{
-                    isValid = false;
-                }
-            }
-        }
-        if(!s.isEmpty()) {
-            isValid = false;
-        }
-        System.out.println(isValid);
+        // Bracket checking lives in BracketValidator
+        System.out.println( new BracketValidator( ).isBalanced( "[({}{})]" ) );
+
+        // A cleared stack is reusable, even after it grew past the default
+        MyStack<Integer> s = new MyStack<>( );
+        for( int i = 0; i < 11; i++ )
+            s.push( i );
+        s.clear( );
+        s.push( 42 );
+        System.out.println( s.size( ) + " " + s.top( ) );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,482 @@
+/**
+ * MyTreeList class implements the MyLinkedList API on top of a
+ * size-augmented balanced tree (an implicit treap, i.e. a rope).
+ * Every node knows the size of its subtree, so the position of an item
+ * is found by descending the tree rather than by walking a chain.
+ * Positional add, get, set and remove run in expected O(log n), and the
+ * bulk operations shift, erase and insertList become split/concatenate
+ * in expected O(log n).
+ */
+public class MyTreeList<AnyType> implements Iterable<AnyType>
+{
+    /**
+     * Construct an empty list.
+     */
+    public MyTreeList( )
+    {
+        clear( );
+    }
+
+    /**
+     * Change the size of this collection to zero.
+     */
+    public void clear( )
+    {
+        root = null;
+    }
+
+    /**
+     * Returns the number of items in this collection.
+     * @return the number of items in this collection.
+     */
+    public int size( )
+    {
+        return size( root );
+    }
+
+    public boolean isEmpty( )
+    {
+        return root == null;
+    }
+
+    /**
+     * Adds an item to this collection, at the end.
+     * @param x any object.
+     * @return true.
+     */
+    public boolean add( AnyType x )
+    {
+        root = merge( root, new Node<AnyType>( x, nextPriority( ) ) );
+        return true;
+    }
+
+    /**
+     * Adds an item to this collection, at specified position.
+     * Items at or after that position are slid one position higher.
+     * @param x any object.
+     * @param idx position to add at.
+     * @throws IndexOutOfBoundsException if idx is not between 0 and size(), inclusive.
+     */
+    public void add( int idx, AnyType x )
+    {
+        checkIndex( idx, size( ) );
+        split( root, idx );
+        Node<AnyType> left = splitLeft, right = splitRight;
+        splitLeft = splitRight = null;
+        root = merge( merge( left, new Node<AnyType>( x, nextPriority( ) ) ), right );
+    }
+
+    /**
+     * Returns the item at position idx.
+     * @param idx the index to search in.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public AnyType get( int idx )
+    {
+        return getNode( idx ).data;
+    }
+
+    /**
+     * Changes the item at position idx.
+     * @param idx the index to change.
+     * @param newVal the new value.
+     * @return the old value.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public AnyType set( int idx, AnyType newVal )
+    {
+        Node<AnyType> p = getNode( idx );
+        AnyType oldVal = p.data;
+
+        p.data = newVal;
+        return oldVal;
+    }
+
+    /**
+     * Removes an item from this collection.
+     * @param idx the index of the object.
+     * @return the item was removed from the collection.
+     * @throws IndexOutOfBoundsException if index is out of range.
+     */
+    public AnyType remove( int idx )
+    {
+        checkIndex( idx, size( ) - 1 );
+        split( root, idx );
+        Node<AnyType> left = splitLeft;
+        split( splitRight, 1 );
+        Node<AnyType> removed = splitLeft;
+        root = merge( left, splitRight );
+        splitLeft = splitRight = null;
+
+        return removed.data;
+    }
+
+    /**
+     * Swaps the items at positions idx1 and idx2.
+     * @throws IndexOutOfBoundsException if either index is out of range.
+     */
+    public void swap( int idx1, int idx2 )
+    {
+        Node<AnyType> i = getNode( idx1 );
+        Node<AnyType> j = getNode( idx2 );
+        AnyType temp = i.data;
+        i.data = j.data;
+        j.data = temp;
+    }
+
+    /**
+     * Rotates the list: a positive x moves the first x items to the end,
+     * a negative x moves the last -x items to the front.
+     * Done as a single split and concatenate.
+     */
+    public void shift( int x )
+    {
+        int n = size( );
+        if( n == 0 )
+            return;
+
+        int k = x % n;
+        if( k < 0 )
+            k += n;
+        if( k == 0 )
+            return;
+
+        split( root, k );
+        root = merge( splitRight, splitLeft );
+        splitLeft = splitRight = null;
+    }
+
+    /**
+     * Removes n items starting at position idx.
+     * @throws IndexOutOfBoundsException if the range is not inside the list.
+     */
+    public void erase( int idx, int n )
+    {
+        if( n < 0 || idx < 0 || idx > size( ) - n )
+            throw new IndexOutOfBoundsException( "erase index: " + idx + "; count: " + n + "; size: " + size( ) );
+
+        split( root, idx );
+        Node<AnyType> left = splitLeft;
+        split( splitRight, n );
+        root = merge( left, splitRight );
+        splitLeft = splitRight = null;   // splitLeft holds the erased items
+    }
+
+    /**
+     * Inserts all items of list at position idx, in order.
+     * The nodes of list are spliced in rather than copied, so list
+     * is left empty.
+     * @throws IndexOutOfBoundsException if idx is not between 0 and size(), inclusive.
+     */
+    public void insertList( int idx, MyTreeList<AnyType> list )
+    {
+        checkIndex( idx, size( ) );
+        if( list == this )
+            throw new IllegalArgumentException( "insertList into itself" );
+
+        split( root, idx );
+        Node<AnyType> left = splitLeft, right = splitRight;
+        splitLeft = splitRight = null;
+        root = merge( merge( left, list.root ), right );
+        list.clear( );
+    }
+
+    /**
+     * Returns a String representation of this collection.
+     */
+    public String toString( )
+    {
+        StringBuilder sb = new StringBuilder( "[ " );
+
+        for( AnyType x : this )
+            sb.append( x + " " );
+        sb.append( "]" );
+
+        return new String( sb );
+    }
+
+    /**
+     * Obtains an Iterator object used to traverse the collection.
+     * @return an iterator positioned prior to the first element.
+     */
+    public java.util.Iterator<AnyType> iterator( )
+    {
+        return new TreeListIterator( );
+    }
+
+    /**
+     * In-order iterator that keeps the path to the next node on a stack,
+     * so a full traversal is O(n).
+     */
+    private class TreeListIterator implements java.util.Iterator<AnyType>
+    {
+        private java.util.ArrayDeque<Node<AnyType>> path = new java.util.ArrayDeque<Node<AnyType>>( );
+        private int nextIdx = 0;
+        private boolean okToRemove = false;
+
+        public TreeListIterator( )
+        {
+            seek( 0 );
+        }
+
+        public boolean hasNext( )
+        {
+            return !path.isEmpty( );
+        }
+
+        public AnyType next( )
+        {
+            if( !hasNext( ) )
+                throw new java.util.NoSuchElementException( );
+
+            Node<AnyType> p = path.pop( );
+            for( Node<AnyType> q = p.right; q != null; q = q.left )
+                path.push( q );
+
+            nextIdx++;
+            okToRemove = true;
+            return p.data;
+        }
+
+        public void remove( )
+        {
+            if( !okToRemove )
+                throw new IllegalStateException( );
+
+            // Removal reshapes the tree, so rebuild the path.
+            MyTreeList.this.remove( --nextIdx );
+            seek( nextIdx );
+            okToRemove = false;
+        }
+
+        /**
+         * Pushes the path from the root to the node at position idx,
+         * keeping only the ancestors that are still to be visited.
+         */
+        private void seek( int idx )
+        {
+            path.clear( );
+            Node<AnyType> p = root;
+            while( p != null )
+            {
+                int leftSize = size( p.left );
+                if( idx <= leftSize )
+                {
+                    path.push( p );
+                    if( idx == leftSize )
+                        break;
+                    p = p.left;
+                }
+                else
+                {
+                    idx -= leftSize + 1;
+                    p = p.right;
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the Node at position idx, which must range from 0 to size( ) - 1.
+     * @throws IndexOutOfBoundsException if idx is not between 0 and size( ) - 1, inclusive.
+     */
+    private Node<AnyType> getNode( int idx )
+    {
+        checkIndex( idx, size( ) - 1 );
+
+        Node<AnyType> p = root;
+        for( ; ; )
+        {
+            int leftSize = size( p.left );
+            if( idx < leftSize )
+                p = p.left;
+            else if( idx > leftSize )
+            {
+                idx -= leftSize + 1;
+                p = p.right;
+            }
+            else
+                return p;
+        }
+    }
+
+    private void checkIndex( int idx, int upper )
+    {
+        if( idx < 0 || idx > upper )
+            throw new IndexOutOfBoundsException( "getNode index: " + idx + "; size: " + size( ) );
+    }
+
+    /**
+     * Splits subtree t so that its first k items end up in splitLeft
+     * and the rest in splitRight.
+     */
+    private void split( Node<AnyType> t, int k )
+    {
+        if( t == null )
+        {
+            splitLeft = splitRight = null;
+            return;
+        }
+
+        if( size( t.left ) >= k )
+        {
+            split( t.left, k );
+            t.left = splitRight;
+            update( t );
+            splitRight = t;
+        }
+        else
+        {
+            split( t.right, k - size( t.left ) - 1 );
+            t.right = splitLeft;
+            update( t );
+            splitLeft = t;
+        }
+    }
+
+    /**
+     * Concatenates two subtrees; every item of a precedes every item of b.
+     * @return the root of the combined subtree.
+     */
+    private Node<AnyType> merge( Node<AnyType> a, Node<AnyType> b )
+    {
+        if( a == null )
+            return b;
+        if( b == null )
+            return a;
+
+        if( a.priority > b.priority )
+        {
+            a.right = merge( a.right, b );
+            update( a );
+            return a;
+        }
+        else
+        {
+            b.left = merge( a, b.left );
+            update( b );
+            return b;
+        }
+    }
+
+    private static int size( Node<?> t )
+    {
+        return t == null ? 0 : t.size;
+    }
+
+    private static void update( Node<?> t )
+    {
+        t.size = 1 + size( t.left ) + size( t.right );
+    }
+
+    // xorshift; the heap priorities only need to be well spread
+    private int nextPriority( )
+    {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    /**
+     * This is the tree node; size counts the nodes in its subtree.
+     */
+    private static class Node<AnyType>
+    {
+        public Node( AnyType d, int pri )
+        {
+            data = d; priority = pri; size = 1;
+        }
+
+        public AnyType data;
+        public Node<AnyType> left;
+        public Node<AnyType> right;
+        public int size;
+        public int priority;
+    }
+
+    private Node<AnyType> root;
+    private int seed = 0x9E3779B9;
+
+    // Results of split( ), to avoid allocating a pair per call; each
+    // operation nulls them when done so they keep no removed nodes alive
+    private Node<AnyType> splitLeft;
+    private Node<AnyType> splitRight;
+
+    public static void main( String [ ] args )
+    {
+        MyTreeList<Integer> lst = new MyTreeList<Integer>( );
+
+        for( int i = 1; i <= 10; i++ )
+            lst.add( i );
+        System.out.println( lst );
+
+        System.out.println( "******SWAP FUNCTION******" );
+        lst.swap( 1, 2 );
+        System.out.println( lst );
+
+        System.out.println( "******SHIFT FUNCTION******" );
+        lst.shift( 3 );
+        System.out.println( lst );
+
+        System.out.println( "******ERASE FUNCTION******" );
+        lst.erase( 3, 5 );
+        System.out.println( lst );
+
+        MyTreeList<Integer> insrtLst = new MyTreeList<Integer>( );
+        for( int i = 40; i < 50; i++ )
+            insrtLst.add( i );
+
+        System.out.println( "******INSERT LIST FUNCTION******" );
+        lst.insertList( 3, insrtLst );
+        System.out.println( lst );
+
+        System.out.println( "******RANDOM POSITIONAL BENCHMARK******" );
+        for( int n = 10000; n <= 40000; n *= 2 )
+        {
+            long linked = benchLinked( n, n );
+            long tree = benchTree( n, n );
+            System.out.printf( "n=%6d ops=%6d: MyLinkedList %8.1f ms, MyTreeList %6.1f ms%n",
+                               n, n, linked / 1e6, tree / 1e6 );
+        }
+        System.out.printf( "n=%7d ops=%7d: MyTreeList %6.1f ms%n",
+                           1000000, 1000000, benchTree( 1000000, 1000000 ) / 1e6 );
+    }
+
+    // Random mix of positional add, get and remove; returns elapsed nanos.
+    private static long benchLinked( int n, int ops )
+    {
+        java.util.Random r = new java.util.Random( 42 );
+        MyLinkedList<Integer> lst = new MyLinkedList<Integer>( );
+        for( int i = 0; i < n; i++ )
+            lst.add( i );
+
+        long start = System.nanoTime( );
+        for( int i = 0; i < ops; i++ )
+            switch( r.nextInt( 3 ) )
+            {
+              case 0: lst.add( r.nextInt( lst.size( ) + 1 ), i ); break;
+              case 1: lst.get( r.nextInt( lst.size( ) ) ); break;
+              default: lst.remove( r.nextInt( lst.size( ) ) ); break;
+            }
+        return System.nanoTime( ) - start;
+    }
+
+    private static long benchTree( int n, int ops )
+    {
+        java.util.Random r = new java.util.Random( 42 );
+        MyTreeList<Integer> lst = new MyTreeList<Integer>( );
+        for( int i = 0; i < n; i++ )
+            lst.add( i );
+
+        long start = System.nanoTime( );
+        for( int i = 0; i < ops; i++ )
+            switch( r.nextInt( 3 ) )
+            {
+              case 0: lst.add( r.nextInt( lst.size( ) + 1 ), i ); break;
+              case 1: lst.get( r.nextInt( lst.size( ) ) ); break;
+              default: lst.remove( r.nextInt( lst.size( ) ) ); break;
+            }
+        return System.nanoTime( ) - start;
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * PersistentStack class implements an immutable stack.
+ * push and pop leave this version untouched and return a new one that
+ * shares all of its items below the top with it, so both are O(1) and
+ * keeping a version around as a snapshot costs nothing extra.
+ * A version is just its top node and only points downwards, so versions
+ * that are no longer referenced are garbage collected on their own.
+ */
+public final class PersistentStack<AnyType> implements Iterable<AnyType>
+{
+    /**
+     * Returns the empty stack.
+     */
+    @SuppressWarnings("unchecked")
+    public static <AnyType> PersistentStack<AnyType> empty( )
+    {
+        return (PersistentStack<AnyType>) EMPTY;
+    }
+
+    private PersistentStack( AnyType x, PersistentStack<AnyType> below, int n )
+    {
+        item = x; rest = below; theSize = n;
+    }
+
+    public int size( )
+    {
+        return theSize;
+    }
+
+    public boolean isEmpty( )
+    {
+        return size( ) == 0;
+    }
+
+    /**
+     * Returns the top item.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public AnyType top( )
+    {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+        return item;
+    }
+
+    /**
+     * Returns this stack with x on top.
+     */
+    public PersistentStack<AnyType> push( AnyType x )
+    {
+        return new PersistentStack<AnyType>( x, this, theSize + 1 );
+    }
+
+    /**
+     * Returns this stack without its top item.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public PersistentStack<AnyType> pop( )
+    {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+        return rest;
+    }
+
+    /**
+     * Returns this stack with all items pushed in iteration order,
+     * so the last one ends up on top. One node per item, no copying.
+     */
+    public PersistentStack<AnyType> pushAll( Iterable<? extends AnyType> items )
+    {
+        PersistentStack<AnyType> s = this;
+        for( AnyType x : items )
+            s = new PersistentStack<AnyType>( x, s, s.theSize + 1 );
+        return s;
+    }
+
+    /**
+     * Returns this stack with items[ 0 ], items[ 1 ], ... pushed in order.
+     */
+    @SafeVarargs
+    public final PersistentStack<AnyType> pushAll( AnyType... items )
+    {
+        PersistentStack<AnyType> s = this;
+        for( AnyType x : items )
+            s = new PersistentStack<AnyType>( x, s, s.theSize + 1 );
+        return s;
+    }
+
+    /**
+     * Returns a String representation, top first.
+     */
+    public String toString( )
+    {
+        StringBuilder sb = new StringBuilder( "[ " );
+
+        for( AnyType x : this )
+            sb.append( x + " " );
+        sb.append( "]" );
+
+        return new String( sb );
+    }
+
+    /**
+     * Obtains an iterator over the items, from top to bottom.
+     * The stack is immutable, so the iterator cannot remove.
+     */
+    public java.util.Iterator<AnyType> iterator( )
+    {
+        return new PersistentStackIterator( );
+    }
+
+    private class PersistentStackIterator implements java.util.Iterator<AnyType>
+    {
+        private PersistentStack<AnyType> current = PersistentStack.this;
+
+        public boolean hasNext( )
+        {
+            return !current.isEmpty( );
+        }
+
+        public AnyType next( )
+        {
+            if( !hasNext( ) )
+                throw new java.util.NoSuchElementException( );
+
+            AnyType x = current.item;
+            current = current.rest;
+            return x;
+        }
+    }
+
+    private static final PersistentStack<Object> EMPTY = new PersistentStack<Object>( null, null, 0 );
+
+    private final AnyType item;
+    private final PersistentStack<AnyType> rest;
+    private final int theSize;
+
+    // Undo/redo demo: every edit is a snapshot, kept for free
+    public static void main( String [ ] args )
+    {
+        PersistentStack<PersistentStack<String>> undo = empty( );
+        PersistentStack<PersistentStack<String>> redo = empty( );
+        PersistentStack<String> doc = empty( );
+
+        for( String word : new String[ ] { "alpha", "beta", "gamma", "delta" } )
+        {
+            undo = undo.push( doc );
+            doc = doc.push( word );
+        }
+        System.out.println( "document: " + doc );
+
+        for( int i = 0; i < 2; i++ )
+        {
+            redo = redo.push( doc );
+            doc = undo.top( );
+            undo = undo.pop( );
+        }
+        System.out.println( "after 2 undos: " + doc );
+
+        undo = undo.push( doc );
+        doc = redo.top( );
+        redo = redo.pop( );
+        System.out.println( "after 1 redo: " + doc );
+
+        doc = doc.pushAll( "x", "y", "z" );
+        System.out.println( "after pushAll: " + doc + " (size " + doc.size( ) + ")" );
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * SegmentedStack class implements a stack as a chain of fixed-size chunks.
+ * Growing links in another chunk instead of copying the whole array, so
+ * push and pop are O(1) in the worst case, not just amortized, and there
+ * is never a second full-size array alive during growth.
+ * One empty chunk is kept above the top so that a stack hovering at a
+ * chunk boundary does not allocate and drop a chunk on every push/pop.
+ */
+public class SegmentedStack<AnyType> implements Iterable<AnyType>
+{
+    public SegmentedStack( )
+    {
+        this( DEFAULT_CHUNK_SIZE );
+    }
+
+    /**
+     * Construct a stack whose chunks hold chunkSize items each.
+     * @throws IllegalArgumentException if chunkSize is not positive.
+     */
+    public SegmentedStack( int chunkSize )
+    {
+        if( chunkSize <= 0 )
+            throw new IllegalArgumentException( "chunkSize: " + chunkSize );
+
+        this.chunkSize = chunkSize;
+        clear( );
+    }
+
+    public int size( )
+    {
+        return theSize;
+    }
+
+    public boolean isEmpty( )
+    {
+        return size( ) == 0;
+    }
+
+    /**
+     * Returns the top item without removing it.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public AnyType top( )
+    {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+        return (AnyType) topChunk.items[ topIndex - 1 ];
+    }
+
+    public void push( AnyType x )
+    {
+        if( topIndex == chunkSize )
+        {
+            if( topChunk.next == null )
+                topChunk.next = new Chunk( chunkSize, topChunk );
+            topChunk = topChunk.next;
+            topIndex = 0;
+        }
+
+        topChunk.items[ topIndex++ ] = x;
+        theSize++;
+    }
+
+    /**
+     * Removes and returns the top item.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public AnyType pop( )
+    {
+        if( isEmpty( ) )
+            throw new java.util.EmptyStackException( );
+
+        AnyType x = (AnyType) topChunk.items[ --topIndex ];
+        topChunk.items[ topIndex ] = null;
+        theSize--;
+
+        if( topIndex == 0 && topChunk.prev != null )
+        {
+            topChunk.next = null;   // keep this chunk as the only spare
+            topChunk = topChunk.prev;
+            topIndex = chunkSize;
+        }
+        return x;
+    }
+
+    public void clear( )
+    {
+        bottomChunk = topChunk = new Chunk( chunkSize, null );
+        topIndex = 0;
+        theSize = 0;
+    }
+
+    /**
+     * Obtains an iterator over the items, from bottom to top.
+     */
+    public java.util.Iterator<AnyType> iterator( )
+    {
+        return new SegmentedStackIterator( );
+    }
+
+    private class SegmentedStackIterator implements java.util.Iterator<AnyType>
+    {
+        private Chunk chunk = bottomChunk;
+        private int index = 0;
+        private int remaining = size( );
+
+        public boolean hasNext( )
+        {
+            return remaining > 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        public AnyType next( )
+        {
+            if( !hasNext( ) )
+                throw new java.util.NoSuchElementException( );
+
+            if( index == chunkSize )
+            {
+                chunk = chunk.next;
+                index = 0;
+            }
+            remaining--;
+            return (AnyType) chunk.items[ index++ ];
+        }
+    }
+
+    private static class Chunk
+    {
+        Chunk( int size, Chunk below )
+        {
+            items = new Object[ size ];
+            prev = below;
+        }
+
+        final Object [ ] items;
+        final Chunk prev;
+        Chunk next;
+    }
+
+    private static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    private final int chunkSize;
+    private Chunk bottomChunk;
+    private Chunk topChunk;
+    private int topIndex;   // items used in topChunk
+    private int theSize;
+}
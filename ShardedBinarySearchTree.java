@@ -0,0 +1,346 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+// ShardedBinarySearchTree class
+//
+// CONSTRUCTION: with the split points between shards
+//
+// ******************PUBLIC OPERATIONS*********************
+// void insert( x )       --> Insert x
+// int insertAll( xs )    --> Insert a batch, shards in parallel
+// void remove( x )       --> Remove x
+// boolean contains( x )  --> Return true if x is present
+// Comparable findMin( )  --> Return smallest item
+// Comparable findMax( )  --> Return largest item
+// boolean isEmpty( )     --> Return true if empty; else false
+// void makeEmpty( )      --> Remove all items
+// Iterator iterator( )   --> Visit all items in sorted order
+
+/**
+ * A thread-safe binary search tree made of independent BinarySearchTree
+ * shards, each covering one key range and guarded by its own read/write
+ * lock, so writers to different ranges do not contend. Shard i holds
+ * the keys k with splitPoints[i-1] <= k < splitPoints[i].
+ */
+public class ShardedBinarySearchTree<AnyType extends Comparable<? super AnyType>> implements Iterable<AnyType> {
+    /**
+     * Construct the tree.
+     *
+     * @param splitPoints the strictly increasing boundaries between shards;
+     *                    n split points make n + 1 shards.
+     * @throws IllegalArgumentException if splitPoints is not strictly increasing.
+     */
+    @SuppressWarnings("unchecked")
+    public ShardedBinarySearchTree(AnyType[] splitPoints) {
+        for (int i = 1; i < splitPoints.length; i++)
+            if (splitPoints[i - 1].compareTo(splitPoints[i]) >= 0)
+                throw new IllegalArgumentException("split points must be strictly increasing");
+
+        this.splitPoints = splitPoints.clone();
+        shards = (BinarySearchTree<AnyType>[]) new BinarySearchTree<?>[splitPoints.length + 1];
+        locks = new ReentrantReadWriteLock[shards.length];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new BinarySearchTree<>();
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Construct a tree with split points at the quantiles of a sample of
+     * the expected keys, so that each shard gets a similar share.
+     *
+     * @param sample some keys distributed like the real ones.
+     * @param shardCount the number of shards wanted; fewer are made if the
+     *                   sample has too few distinct keys.
+     */
+    @SuppressWarnings("unchecked")
+    public static <AnyType extends Comparable<? super AnyType>> ShardedBinarySearchTree<AnyType> fromSample(
+            Collection<? extends AnyType> sample, int shardCount) {
+        Object[] sorted = sample.toArray();
+        Arrays.sort(sorted);
+
+        List<AnyType> splits = new ArrayList<>();
+        for (int i = 1; i < shardCount && sorted.length > 0; i++) {
+            AnyType s = (AnyType) sorted[(int) ((long) i * sorted.length / shardCount)];
+            if (splits.isEmpty() || splits.get(splits.size() - 1).compareTo(s) < 0)
+                splits.add(s);
+        }
+        return new ShardedBinarySearchTree<>((AnyType[]) splits.toArray(new Comparable<?>[0]));
+    }
+
+    /**
+     * Insert into the tree; duplicates are ignored.
+     *
+     * @param x the item to insert.
+     */
+    public void insert(AnyType x) {
+        int i = shardFor(x);
+        locks[i].writeLock().lock();
+        try {
+            shards[i].insert(x);
+        } finally {
+            locks[i].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Insert a batch of items. The items are grouped by shard and the
+     * shards are filled in parallel, each by one BinarySearchTree.insertAll
+     * under one lock acquisition.
+     *
+     * @param xs the items to insert.
+     * @return the number of items that were not already present.
+     */
+    @SuppressWarnings("unchecked")
+    public int insertAll(Collection<? extends AnyType> xs) {
+        List<AnyType>[] batches = (List<AnyType>[]) new List<?>[shards.length];
+        for (AnyType x : xs) {
+            int i = shardFor(x);
+            if (batches[i] == null)
+                batches[i] = new ArrayList<>();
+            batches[i].add(x);
+        }
+
+        return IntStream.range(0, shards.length).parallel().filter(i -> batches[i] != null).map(i -> {
+            locks[i].writeLock().lock();
+            try {
+                return shards[i].insertAll(batches[i]);
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }).sum();
+    }
+
+    /**
+     * Remove from the tree. Nothing is done if x is not found.
+     *
+     * @param x the item to remove.
+     */
+    public void remove(AnyType x) {
+        int i = shardFor(x);
+        locks[i].writeLock().lock();
+        try {
+            shards[i].remove(x);
+        } finally {
+            locks[i].writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find an item in the tree.
+     *
+     * @param x the item to search for.
+     * @return true if found.
+     */
+    public boolean contains(AnyType x) {
+        int i = shardFor(x);
+        locks[i].readLock().lock();
+        try {
+            return shards[i].contains(x);
+        } finally {
+            locks[i].readLock().unlock();
+        }
+    }
+
+    /**
+     * Find the smallest item in the tree.
+     *
+     * @return smallest item or null if empty.
+     */
+    public AnyType findMin() {
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].readLock().lock();
+            try {
+                if (!shards[i].isEmpty())
+                    return shards[i].findMin();
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Find the largest item in the tree.
+     *
+     * @return the largest item or null if empty.
+     */
+    public AnyType findMax() {
+        for (int i = shards.length - 1; i >= 0; i--) {
+            locks[i].readLock().lock();
+            try {
+                if (!shards[i].isEmpty())
+                    return shards[i].findMax();
+            } finally {
+                locks[i].readLock().unlock();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Test if the tree is logically empty.
+     *
+     * @return true if every shard is empty when looked at.
+     */
+    public boolean isEmpty() {
+        return findMin() == null;
+    }
+
+    /**
+     * Make the tree logically empty, one shard at a time.
+     */
+    public void makeEmpty() {
+        for (int i = 0; i < shards.length; i++) {
+            locks[i].writeLock().lock();
+            try {
+                shards[i].makeEmpty();
+            } finally {
+                locks[i].writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * The number of shards.
+     */
+    public int shardCount() {
+        return shards.length;
+    }
+
+    /**
+     * Visit all items in sorted order. Each shard is copied under its
+     * read lock when the iterator reaches it, so the iteration reflects
+     * every shard at some moment, not the whole tree at one moment.
+     *
+     * @return an iterator in sorted order.
+     */
+    public Iterator<AnyType> iterator() {
+        return new ShardIterator();
+    }
+
+    private class ShardIterator implements Iterator<AnyType> {
+        private int nextShard = 0;
+        private Iterator<AnyType> current = java.util.Collections.emptyIterator();
+
+        public boolean hasNext() {
+            while (!current.hasNext() && nextShard < shards.length)
+                current = snapshot(nextShard++).iterator();
+            return current.hasNext();
+        }
+
+        public AnyType next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return current.next();
+        }
+    }
+
+    private List<AnyType> snapshot(int i) {
+        List<AnyType> items = new ArrayList<>();
+        locks[i].readLock().lock();
+        try {
+            shards[i].forEachInOrder(items::add);
+        } finally {
+            locks[i].readLock().unlock();
+        }
+        return items;
+    }
+
+    /**
+     * Internal method to find the shard for a key: the number of split
+     * points that are less than or equal to it.
+     */
+    private int shardFor(AnyType x) {
+        int lo = 0, hi = splitPoints.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (x.compareTo(splitPoints[mid]) < 0)
+                hi = mid;
+            else
+                lo = mid + 1;
+        }
+        return lo;
+    }
+
+    private final AnyType[] splitPoints;
+    private final BinarySearchTree<AnyType>[] shards;
+    private final ReentrantReadWriteLock[] locks;
+
+    // Test program
+    public static void main(String[] args) throws InterruptedException {
+        final int THREADS = 8;
+        final int PER_THREAD = 50000;
+        java.util.Random r = new java.util.Random(1);
+
+        List<Integer> sample = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            sample.add(r.nextInt());
+        ShardedBinarySearchTree<Integer> sharded = fromSample(sample, 16);
+        final BinarySearchTree<Integer> single = new BinarySearchTree<>();
+
+        // Warm-up, so neither timed run pays for compilation
+        runWriters(THREADS, PER_THREAD / 10, fromSample(sample, 16)::insert);
+        final BinarySearchTree<Integer> warm = new BinarySearchTree<>();
+        runWriters(THREADS, PER_THREAD / 10, x -> {
+            synchronized (warm) {
+                warm.insert(x);
+            }
+        });
+
+        long t0 = System.nanoTime();
+        runWriters(THREADS, PER_THREAD, sharded::insert);
+        long t1 = System.nanoTime();
+        runWriters(THREADS, PER_THREAD, x -> {
+            synchronized (single) {
+                single.insert(x);
+            }
+        });
+        long t2 = System.nanoTime();
+        System.out.printf("%d threads x %d inserts: %d shards %.1f ms, one locked tree %.1f ms%n",
+                THREADS, PER_THREAD, sharded.shardCount(), (t1 - t0) / 1e6, (t2 - t1) / 1e6);
+
+        Integer prev = null;
+        int count = 0;
+        for (Integer x : sharded) {
+            if (prev != null && prev >= x)
+                System.out.println("Order error!");
+            prev = x;
+            count++;
+        }
+        if (!sharded.findMin().equals(single.findMin()) || !sharded.findMax().equals(single.findMax()))
+            System.out.println("FindMin or FindMax error!");
+        System.out.println(count + " distinct keys in order");
+
+        List<Integer> batch = new ArrayList<>();
+        for (int i = 0; i < 100000; i++)
+            batch.add(r.nextInt());
+        sharded.insertAll(batch);
+        for (Integer x : batch)
+            if (!sharded.contains(x))
+                System.out.println("Find error!");
+    }
+
+    private static void runWriters(int threads, int perThread, java.util.function.IntConsumer insert)
+            throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            workers[t] = new Thread(() -> {
+                java.util.Random r = new java.util.Random(seed);
+                for (int i = 0; i < perThread; i++)
+                    insert.accept(r.nextInt());
+            });
+        }
+        for (Thread w : workers)
+            w.start();
+        for (Thread w : workers)
+            w.join();
+    }
+}
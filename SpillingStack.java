@@ -0,0 +1,397 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+
+/**
+ * SpillingStack class implements a stack that can grow past the heap.
+ * Items are fixed-width records turned into bytes by a Codec. The stack
+ * is cut into segments of segmentRecords items and kept in three tiers,
+ * bottom to top:
+ * <ul>
+ * <li> on disk: the deepest segments, in a temporary file;
+ * <li> off-heap: up to maxOffHeapSegments encoded segments in direct buffers;
+ * <li> on-heap: the hot top, up to two segments of plain objects.
+ * </ul>
+ * When the hot part fills up, its lower segment is encoded off-heap, and
+ * the lowest off-heap segment is written to disk if there are too many.
+ * When a pop empties the hot part, the segment below it is paged back in.
+ * Keeping two segments hot means a stack hovering around a segment
+ * boundary does not move a segment on every push/pop.
+ * Otherwise it has MyStack's operations, but size( ) is a long, since
+ * the stack is meant to outgrow an int, and the iterator does not
+ * support remove.
+ * Call close( ) to release the file and the direct buffers.
+ */
+public class SpillingStack<AnyType> implements AutoCloseable, Iterable<AnyType>
+{
+    /**
+     * Encodes items as exactly width( ) bytes.
+     */
+    public interface Codec<AnyType>
+    {
+        int width( );
+        void write( AnyType x, ByteBuffer buf );
+        AnyType read( ByteBuffer buf );
+    }
+
+    /**
+     * Codec for Long items, 8 bytes each.
+     */
+    public static final Codec<Long> LONGS = new Codec<Long>( )
+    {
+        public int width( ) { return Long.BYTES; }
+        public void write( Long x, ByteBuffer buf ) { buf.putLong( x ); }
+        public Long read( ByteBuffer buf ) { return buf.getLong( ); }
+    };
+
+    /**
+     * Construct a stack with 64K-record segments and at most 64 of them off-heap,
+     * spilling to the default temporary directory.
+     */
+    public SpillingStack( Codec<AnyType> codec )
+    {
+        this( codec, 1 << 16, 64, null );
+    }
+
+    /**
+     * Construct a stack.
+     * @param codec fixed-width encoding of the items.
+     * @param segmentRecords items per segment.
+     * @param maxOffHeapSegments encoded segments kept off-heap before spilling to disk.
+     * @param spillDir directory for the temporary file, or null for the default.
+     * @throws IllegalArgumentException if a size is not positive or a segment exceeds 2GB.
+     */
+    @SuppressWarnings("unchecked")
+    public SpillingStack( Codec<AnyType> codec, int segmentRecords, int maxOffHeapSegments, Path spillDir )
+    {
+        if( segmentRecords <= 0 || maxOffHeapSegments <= 0 || codec.width( ) <= 0
+            || (long) segmentRecords * codec.width( ) > Integer.MAX_VALUE )
+            throw new IllegalArgumentException( "segmentRecords: " + segmentRecords + "; maxOffHeapSegments: " + maxOffHeapSegments );
+
+        this.codec = codec;
+        this.segmentRecords = segmentRecords;
+        this.segmentBytes = segmentRecords * codec.width( );
+        this.maxOffHeapSegments = maxOffHeapSegments;
+        this.spillDir = spillDir;
+        hot = (AnyType []) new Object[ 2 * segmentRecords ];
+    }
+
+    /**
+     * Returns the number of items in all tiers.
+     */
+    public long size( )
+    {
+        return ( diskSegments + offHeap.size( ) ) * (long) segmentRecords + hotSize;
+    }
+
+    public boolean isEmpty( )
+    {
+        return size( ) == 0;
+    }
+
+    /**
+     * Returns the top item without removing it.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public AnyType top( )
+    {
+        if( hotSize == 0 )
+            pageIn( );
+        return hot[ hotSize - 1 ];
+    }
+
+    public void push( AnyType x )
+    {
+        if( hotSize == hot.length )
+            spill( );
+
+        hot[ hotSize++ ] = x;
+        modCount++;
+    }
+
+    public void remove( )
+    {
+        pop( );
+    }
+
+    /**
+     * Removes and returns the top item.
+     * @throws java.util.EmptyStackException if the stack is empty.
+     */
+    public AnyType pop( )
+    {
+        if( hotSize == 0 )
+            pageIn( );
+
+        AnyType x = hot[ --hotSize ];
+        hot[ hotSize ] = null;
+        modCount++;
+        return x;
+    }
+
+    /**
+     * Removes all items. The spill file is kept for reuse.
+     */
+    public void clear( )
+    {
+        java.util.Arrays.fill( hot, 0, hotSize, null );
+        hotSize = 0;
+        while( !offHeap.isEmpty( ) )
+            release( offHeap.pollLast( ) );
+        diskSegments = 0;
+        modCount++;
+    }
+
+    public java.util.Iterator<AnyType> iterator( )
+    {
+        return new SegmentIterator( );
+    }
+
+    /**
+     * Iterates from bottom to top. Disk segments are read into a buffer
+     * of the iterator's own, so iterating does not move segments between
+     * tiers. Fails fast if the stack is changed. remove is not supported:
+     * taking out an item below the hot part would mean re-encoding every
+     * segment above it.
+     */
+    private class SegmentIterator implements java.util.Iterator<AnyType>
+    {
+        private long nextDiskSegment = 0;
+        private final java.util.Iterator<ByteBuffer> offHeapItr = offHeap.iterator( );
+        private ByteBuffer segment;     // the lower segment being decoded
+        private ByteBuffer diskBuf;
+        private int current = 0;        // in hot, once the lower tiers are done
+        private final int expectedModCount = modCount;
+
+        public boolean hasNext( )
+        {
+            return segment != null && segment.hasRemaining( ) || nextDiskSegment < diskSegments
+                || offHeapItr.hasNext( ) || current < hotSize;
+        }
+
+        public AnyType next( )
+        {
+            if( modCount != expectedModCount )
+                throw new java.util.ConcurrentModificationException( );
+
+            if( segment == null || !segment.hasRemaining( ) )
+            {
+                if( nextDiskSegment < diskSegments )
+                {
+                    if( diskBuf == null )
+                        diskBuf = ByteBuffer.allocate( segmentBytes );
+                    diskBuf.clear( );
+                    read( diskBuf, nextDiskSegment++ );
+                    segment = diskBuf.flip( );
+                }
+                else if( offHeapItr.hasNext( ) )
+                    segment = offHeapItr.next( ).duplicate( ).rewind( );
+            }
+
+            if( segment != null && segment.hasRemaining( ) )
+                return codec.read( segment );
+            if( current < hotSize )
+                return hot[ current++ ];
+            throw new java.util.NoSuchElementException( );
+        }
+    }
+
+    /**
+     * Encoded size of the items on the heap; the objects themselves
+     * may well be larger.
+     */
+    public long onHeapBytes( )
+    {
+        return (long) hotSize * codec.width( );
+    }
+
+    /**
+     * Bytes of direct memory held, including one pooled buffer.
+     */
+    public long offHeapBytes( )
+    {
+        return ( offHeap.size( ) + ( spare != null ? 1 : 0 ) ) * (long) segmentBytes;
+    }
+
+    /**
+     * Bytes of the spill file in use.
+     */
+    public long onDiskBytes( )
+    {
+        return diskSegments * (long) segmentBytes;
+    }
+
+    /**
+     * Deletes the spill file and drops all items.
+     */
+    public void close( )
+    {
+        clear( );
+        spare = null;
+        if( file != null )
+        {
+            try
+            {
+                file.close( );
+            }
+            catch( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+            file = null;
+        }
+    }
+
+    /**
+     * Encodes the lower hot segment off-heap and slides the upper one down.
+     */
+    private void spill( )
+    {
+        if( offHeap.size( ) == maxOffHeapSegments )
+            writeToDisk( offHeap.pollFirst( ) );
+
+        ByteBuffer buf = acquire( );
+        for( int i = 0; i < segmentRecords; i++ )
+            codec.write( hot[ i ], buf );
+        buf.flip( );
+        offHeap.addLast( buf );
+
+        System.arraycopy( hot, segmentRecords, hot, 0, hotSize - segmentRecords );
+        java.util.Arrays.fill( hot, hotSize - segmentRecords, hotSize, null );
+        hotSize -= segmentRecords;
+    }
+
+    /**
+     * Decodes the segment just below the hot part into it.
+     */
+    private void pageIn( )
+    {
+        ByteBuffer buf;
+        if( !offHeap.isEmpty( ) )
+            buf = offHeap.pollLast( );
+        else if( diskSegments > 0 )
+            buf = readFromDisk( );
+        else
+            throw new java.util.EmptyStackException( );
+
+        buf.rewind( );
+        for( int i = 0; i < segmentRecords; i++ )
+            hot[ i ] = codec.read( buf );
+        hotSize = segmentRecords;
+        release( buf );
+    }
+
+    private void writeToDisk( ByteBuffer buf )
+    {
+        try
+        {
+            if( file == null )
+                file = openSpillFile( );
+
+            long pos = diskSegments * (long) segmentBytes;
+            buf.rewind( );
+            while( buf.hasRemaining( ) )
+                pos += file.write( buf, pos );
+            diskSegments++;
+            release( buf );
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private ByteBuffer readFromDisk( )
+    {
+        ByteBuffer buf = acquire( );
+        read( buf, --diskSegments );
+        return buf;
+    }
+
+    /**
+     * Fills buf with disk segment seg.
+     */
+    private void read( ByteBuffer buf, long seg )
+    {
+        try
+        {
+            long pos = seg * (long) segmentBytes;
+            while( buf.hasRemaining( ) )
+            {
+                int n = file.read( buf, pos );
+                if( n < 0 )
+                    throw new IOException( "spill file truncated" );
+                pos += n;
+            }
+        }
+        catch( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private FileChannel openSpillFile( ) throws IOException
+    {
+        Path p = spillDir == null ? Files.createTempFile( "spillingstack", ".bin" )
+                                  : Files.createTempFile( spillDir, "spillingstack", ".bin" );
+        return FileChannel.open( p, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                                 StandardOpenOption.DELETE_ON_CLOSE );
+    }
+
+    // Direct buffers are slow to allocate, so one freed buffer is kept
+    private ByteBuffer acquire( )
+    {
+        ByteBuffer buf = spare != null ? spare : ByteBuffer.allocateDirect( segmentBytes );
+        spare = null;
+        buf.clear( );
+        return buf;
+    }
+
+    private void release( ByteBuffer buf )
+    {
+        spare = buf;
+    }
+
+    private final Codec<AnyType> codec;
+    private final int segmentRecords;
+    private final int segmentBytes;
+    private final int maxOffHeapSegments;
+    private final Path spillDir;
+
+    private final AnyType [ ] hot;
+    private int hotSize;
+    private final ArrayDeque<ByteBuffer> offHeap = new ArrayDeque<ByteBuffer>( );   // bottom first
+    private ByteBuffer spare;
+    private FileChannel file;
+    private long diskSegments;
+    private int modCount;
+
+    public static void main( String [ ] args )
+    {
+        long n = args.length > 0 ? Long.parseLong( args[ 0 ] ) : 10000000L;
+
+        try( SpillingStack<Long> s = new SpillingStack<Long>( LONGS, 1 << 14, 16, null ) )
+        {
+            for( long i = 0; i < n; i++ )
+                s.push( i );
+            System.out.printf( "pushed %d: on-heap %d B, off-heap %d B, on-disk %d B%n",
+                               s.size( ), s.onHeapBytes( ), s.offHeapBytes( ), s.onDiskBytes( ) );
+
+            long expected = 0;
+            for( long x : s )
+                if( x != expected++ )
+                    throw new IllegalStateException( "iteration order broken at " + x );
+            System.out.println( "iterated " + expected + " bottom to top" );
+
+            for( long i = n - 1; i >= 0; i-- )
+                if( s.pop( ) != i )
+                    throw new IllegalStateException( "pop order broken at " + i );
+            System.out.println( "popped all in order; empty = " + s.isEmpty( ) );
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.ArrayDeque;
+
+/**
+ * Times push-then-pop of n ints on IntStack, MyStack<Integer> and
+ * ArrayDeque<Integer>. A rough wall-clock harness; the JMH version is
+ * bench.PrimitiveStackBenchmark.
+ * Usage: java StackBenchmark [n] [rounds]
+ */
+public class StackBenchmark
+{
+    public static void main( String [ ] args )
+    {
+        int n = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 10000000;
+        int rounds = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 5;
+
+        for( int r = 0; r < rounds; r++ )
+        {
+            long t0 = System.nanoTime( );
+            long a = intStack( n );
+            long t1 = System.nanoTime( );
+            long b = myStack( n );
+            long t2 = System.nanoTime( );
+            long c = arrayDeque( n );
+            long t3 = System.nanoTime( );
+
+            if( a != b || a != c )
+                throw new IllegalStateException( "results differ" );
+            System.out.printf( "round %d: IntStack %6.1f ms, MyStack<Integer> %6.1f ms, ArrayDeque<Integer> %6.1f ms%n",
+                               r, ( t1 - t0 ) / 1e6, ( t2 - t1 ) / 1e6, ( t3 - t2 ) / 1e6 );
+        }
+    }
+
+    private static long intStack( int n )
+    {
+        IntStack s = new IntStack( );
+        long sum = 0;
+        for( int i = 0; i < n; i++ )
+            s.push( i );
+        while( !s.isEmpty( ) )
+            sum += s.pop( );
+        return sum;
+    }
+
+    private static long myStack( int n )
+    {
+        MyStack<Integer> s = new MyStack<Integer>( );
+        long sum = 0;
+        for( int i = 0; i < n; i++ )
+            s.push( i );
+        while( !s.isEmpty( ) )
+            sum += s.pop( );
+        return sum;
+    }
+
+    private static long arrayDeque( int n )
+    {
+        ArrayDeque<Integer> s = new ArrayDeque<Integer>( );
+        long sum = 0;
+        for( int i = 0; i < n; i++ )
+            s.push( i );
+        while( !s.isEmpty( ) )
+            sum += s.pop( );
+        return sum;
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.ArrayDeque;
+
+/**
+ * Records the latency of every push while a stack grows from empty to n
+ * items, and reports percentiles. Shows the copy spikes MyStack and
+ * ArrayDeque take on growth against SegmentedStack, which never copies.
+ * Usage: java StackLatencyBenchmark [n] [rounds]
+ */
+public class StackLatencyBenchmark
+{
+    public static void main( String [ ] args )
+    {
+        int n = args.length > 0 ? Integer.parseInt( args[ 0 ] ) : 100000000;
+        int rounds = args.length > 1 ? Integer.parseInt( args[ 1 ] ) : 3;
+        Integer item = 42;   // one shared item, so only the stack allocates
+
+        for( int r = 0; r < rounds; r++ )
+        {
+            LatencyHistogram h = new LatencyHistogram( );
+            MyStack<Integer> a = new MyStack<Integer>( );
+            for( int i = 0; i < n; i++ )
+            {
+                long t = System.nanoTime( );
+                a.push( item );
+                h.record( System.nanoTime( ) - t );
+            }
+            a = null;
+            h.print( "MyStack       " );
+
+            h = new LatencyHistogram( );
+            ArrayDeque<Integer> b = new ArrayDeque<Integer>( );
+            for( int i = 0; i < n; i++ )
+            {
+                long t = System.nanoTime( );
+                b.push( item );
+                h.record( System.nanoTime( ) - t );
+            }
+            b = null;
+            h.print( "ArrayDeque    " );
+
+            h = new LatencyHistogram( );
+            SegmentedStack<Integer> c = new SegmentedStack<Integer>( );
+            for( int i = 0; i < n; i++ )
+            {
+                long t = System.nanoTime( );
+                c.push( item );
+                h.record( System.nanoTime( ) - t );
+            }
+            c = null;
+            h.print( "SegmentedStack" );
+        }
+    }
+}
@@ -0,0 +1,288 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Trace class defines a compact binary format for the sequence of
+ * operations applied to one BinarySearchTree, MyLinkedList or MyStack of
+ * Integers, so that a production workload can be replayed offline.
+ * A file is the magic bytes "DSTR", a version byte and the kind of
+ * structure (TREE, LIST or STACK), followed by records. A record is an
+ * opcode byte and its int operands, each a zigzag varint: small keys,
+ * indices and values, negative or not, take one or two bytes. The batch
+ * records INSERT_ALL and REMOVE_ALL carry a count and that many keys.
+ * Writer and Reader stream through a 64K direct buffer with FileChannel,
+ * so recording costs a few buffer puts per operation.
+ */
+public final class Trace
+{
+    public static final byte TREE = 1;
+    public static final byte LIST = 2;
+    public static final byte STACK = 3;
+
+    public static final byte CLEAR = 0;     // any kind
+    public static final byte INSERT = 1;    // TREE: key
+    public static final byte REMOVE = 2;    // TREE: key
+    public static final byte CONTAINS = 3;  // TREE: key
+    public static final byte ADD = 4;       // LIST: index, value
+    public static final byte GET = 5;       // LIST: index
+    public static final byte REMOVE_AT = 6; // LIST: index
+    public static final byte SHIFT = 7;     // LIST: distance
+    public static final byte PUSH = 8;      // STACK: value
+    public static final byte POP = 9;       // STACK
+    public static final byte INSERT_ALL = 10;   // TREE: count, then count keys
+    public static final byte REMOVE_ALL = 11;   // TREE: count, then count keys
+
+    private Trace( )
+    {
+    }
+
+    /**
+     * Returns the number of operands that follow opcode op. For a batch
+     * opcode that is the count; the keys follow it.
+     * @throws IllegalArgumentException if op is not an opcode.
+     */
+    public static int operands( int op )
+    {
+        switch( op )
+        {
+          case CLEAR: case POP:
+            return 0;
+          case INSERT: case REMOVE: case CONTAINS: case GET: case REMOVE_AT: case SHIFT: case PUSH:
+          case INSERT_ALL: case REMOVE_ALL:
+            return 1;
+          case ADD:
+            return 2;
+          default:
+            throw new IllegalArgumentException( "bad opcode: " + op );
+        }
+    }
+
+    /**
+     * Returns true if op is INSERT_ALL or REMOVE_ALL.
+     */
+    public static boolean isBatch( int op )
+    {
+        return op == INSERT_ALL || op == REMOVE_ALL;
+    }
+
+    /**
+     * Appends records to a new trace file.
+     */
+    public static final class Writer implements AutoCloseable
+    {
+        /**
+         * Creates or truncates file and writes the header.
+         */
+        public Writer( Path file, byte kind ) throws IOException
+        {
+            this.kind = kind;
+            channel = FileChannel.open( file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING );
+            buf.put( MAGIC ).put( VERSION ).put( kind );
+        }
+
+        public byte kind( )
+        {
+            return kind;
+        }
+
+        /**
+         * Returns the number of records written.
+         */
+        public long records( )
+        {
+            return records;
+        }
+
+        public void write( byte op )
+        {
+            reserve( );
+            buf.put( op );
+            records++;
+        }
+
+        public void write( byte op, int a )
+        {
+            reserve( );
+            buf.put( op );
+            putVarint( a );
+            records++;
+        }
+
+        public void write( byte op, int a, int b )
+        {
+            reserve( );
+            buf.put( op );
+            putVarint( a );
+            putVarint( b );
+            records++;
+        }
+
+        /**
+         * Writes a batch record: op, the number of keys, then the keys in
+         * iteration order.
+         */
+        public void write( byte op, java.util.Collection<? extends Integer> keys )
+        {
+            reserve( );
+            buf.put( op );
+            putVarint( keys.size( ) );
+            for( int k : keys )
+            {
+                if( buf.remaining( ) < MAX_VARINT )
+                    flush( );
+                putVarint( k );
+            }
+            records++;
+        }
+
+        /**
+         * Writes out the buffered records.
+         */
+        public void flush( )
+        {
+            try
+            {
+                buf.flip( );
+                while( buf.hasRemaining( ) )
+                    channel.write( buf );
+                buf.clear( );
+            }
+            catch( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        public void close( ) throws IOException
+        {
+            if( channel.isOpen( ) )
+            {
+                flush( );
+                channel.close( );
+            }
+        }
+
+        private void reserve( )
+        {
+            if( buf.remaining( ) < MAX_RECORD )
+                flush( );
+        }
+
+        private void putVarint( int x )
+        {
+            int v = ( x << 1 ) ^ ( x >> 31 );
+            while( ( v & ~0x7F ) != 0 )
+            {
+                buf.put( (byte) ( v | 0x80 ) );
+                v >>>= 7;
+            }
+            buf.put( (byte) v );
+        }
+
+        private final byte kind;
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect( BUFFER_SIZE );
+        private long records;
+    }
+
+    /**
+     * Reads the records of a trace file in order.
+     */
+    public static final class Reader implements AutoCloseable
+    {
+        /**
+         * Opens file and checks the header.
+         * @throws IOException if file is not a trace of this version.
+         */
+        public Reader( Path file ) throws IOException
+        {
+            channel = FileChannel.open( file, StandardOpenOption.READ );
+            try
+            {
+                buf.flip( );
+                fill( );
+                if( buf.remaining( ) < MAGIC.length + 2 )
+                    throw new IOException( file + ": not a trace" );
+                for( byte m : MAGIC )
+                    if( buf.get( ) != m )
+                        throw new IOException( file + ": not a trace" );
+                if( buf.get( ) != VERSION )
+                    throw new IOException( file + ": unsupported trace version" );
+                kind = buf.get( );
+            }
+            catch( IOException e )
+            {
+                channel.close( );
+                throw e;
+            }
+        }
+
+        public byte kind( )
+        {
+            return kind;
+        }
+
+        /**
+         * Reads the next opcode; its operands follow through operand( ).
+         * @return the opcode, or -1 at the end of the trace.
+         */
+        public int next( ) throws IOException
+        {
+            if( buf.remaining( ) < MAX_RECORD && !eof )
+                fill( );
+            return buf.hasRemaining( ) ? buf.get( ) : -1;
+        }
+
+        /**
+         * Reads the next operand of the current record.
+         * @throws IOException if the trace ends inside the record.
+         */
+        public int operand( ) throws IOException
+        {
+            if( buf.remaining( ) < MAX_VARINT && !eof )
+                fill( );    // a batch record can span buffers
+
+            int v = 0;
+            for( int shift = 0; shift < 35; shift += 7 )
+            {
+                if( !buf.hasRemaining( ) )
+                    throw new IOException( "trace truncated" );
+                byte b = buf.get( );
+                v |= ( b & 0x7F ) << shift;
+                if( b >= 0 )
+                    return ( v >>> 1 ) ^ -( v & 1 );
+            }
+            throw new IOException( "bad varint in trace" );
+        }
+
+        public void close( ) throws IOException
+        {
+            channel.close( );
+        }
+
+        // Tops the buffer up, keeping the unread bytes
+        private void fill( ) throws IOException
+        {
+            buf.compact( );
+            while( buf.hasRemaining( ) && !eof )
+                eof = channel.read( buf ) < 0;
+            buf.flip( );
+        }
+
+        private final FileChannel channel;
+        private final ByteBuffer buf = ByteBuffer.allocateDirect( BUFFER_SIZE );
+        private final byte kind;
+        private boolean eof;
+    }
+
+    private static final byte [ ] MAGIC = { 'D', 'S', 'T', 'R' };
+    private static final byte VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_VARINT = 5;
+    private static final int MAX_RECORD = 1 + 2 * MAX_VARINT;
+}
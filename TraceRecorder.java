@@ -0,0 +1,420 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * TraceRecorder class holds drop-in subclasses of BinarySearchTree,
+ * MyLinkedList and MyStack that log their operations to a Trace.Writer.
+ * Construct the recording class wherever the plain one was constructed;
+ * it behaves the same and records nothing until a writer is attached,
+ * so recording can be switched on and off while the program runs. The
+ * check costs one null test per operation while detached.
+ * A replay starts from an empty structure, so attach first writes a
+ * CLEAR and then records that rebuild the current contents; a trace
+ * started mid-run replays to the same state. Call attach from the
+ * thread using the structure, as for any other operation on it;
+ * detach may be called from any thread.
+ * An operation is recorded once it has returned, so one that throws is
+ * left out and a replay does not have to expect failures.
+ * Only operations that change the shape of the structure or read from
+ * it are recorded: set and swap only move values around, and values do
+ * not affect replay.
+ * A trace has no encoding for null, so the recording classes reject
+ * null items with a NullPointerException before changing anything,
+ * whether a writer is attached or not.
+ */
+public final class TraceRecorder
+{
+    private TraceRecorder( )
+    {
+    }
+
+    /**
+     * A BinarySearchTree recording insert, remove, contains and makeEmpty.
+     * insertAll and removeAll are recorded as one batch record each, so
+     * a replay makes the same batch calls and builds the same shape.
+     */
+    public static class RecordingTree extends BinarySearchTree<Integer>
+    {
+        /**
+         * Writes the current contents to out, in an order that rebuilds
+         * the same shape, and starts recording to it.
+         * @throws IllegalArgumentException if out is not a TREE trace.
+         */
+        public void attach( Trace.Writer out )
+        {
+            check( out, Trace.TREE ).write( Trace.CLEAR );
+            forEachPreOrder( x -> out.write( Trace.INSERT, x ) );
+            this.out = out;
+        }
+
+        public void detach( )
+        {
+            out = null;
+        }
+
+        public void insert( Integer x )
+        {
+            super.insert( Objects.requireNonNull( x ) );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.INSERT, x );
+        }
+
+        public int insertAll( Collection<? extends Integer> xs )
+        {
+            int n = super.insertAll( requireNoNulls( xs ) );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.INSERT_ALL, xs );
+            return n;
+        }
+
+        public void remove( Integer x )
+        {
+            super.remove( Objects.requireNonNull( x ) );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.REMOVE, x );
+        }
+
+        public int removeAll( Collection<? extends Integer> xs )
+        {
+            int n = super.removeAll( requireNoNulls( xs ) );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.REMOVE_ALL, xs );
+            return n;
+        }
+
+        public boolean contains( Integer x )
+        {
+            boolean found = super.contains( Objects.requireNonNull( x ) );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.CONTAINS, x );
+            return found;
+        }
+
+        public void makeEmpty( )
+        {
+            super.makeEmpty( );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.CLEAR );
+        }
+
+        private volatile Trace.Writer out;
+    }
+
+    /**
+     * A MyLinkedList recording add, get, remove, shift and clear.
+     * add( x ), erase and insertList go through add( idx, x ) and
+     * remove( idx ), and are recorded as those; so are add and remove
+     * through its iterators.
+     */
+    public static class RecordingList extends MyLinkedList<Integer>
+    {
+        /**
+         * Writes the current contents to out and starts recording to it.
+         * @throws IllegalArgumentException if out is not a LIST trace.
+         */
+        public void attach( Trace.Writer out )
+        {
+            check( out, Trace.LIST ).write( Trace.CLEAR );
+            int idx = 0;
+            for( Integer x : this )
+                out.write( Trace.ADD, idx++, x );
+            this.out = out;
+        }
+
+        public void detach( )
+        {
+            out = null;
+        }
+
+        public void add( int idx, Integer x )
+        {
+            super.add( idx, Objects.requireNonNull( x ) );
+            Trace.Writer w = out;
+            if( w != null && !inShift )
+                w.write( Trace.ADD, idx, x );
+        }
+
+        // Not recorded, but a null would break a later attach
+        public Integer set( int idx, Integer newVal )
+        {
+            return super.set( idx, Objects.requireNonNull( newVal ) );
+        }
+
+        public Integer get( int idx )
+        {
+            Integer x = super.get( idx );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.GET, idx );
+            return x;
+        }
+
+        public Integer remove( int idx )
+        {
+            Integer x = super.remove( idx );
+            Trace.Writer w = out;
+            if( w != null && !inShift )
+                w.write( Trace.REMOVE_AT, idx );
+            return x;
+        }
+
+        // shift is built from add and remove, which must not be recorded again
+        public void shift( int x )
+        {
+            inShift = true;
+            try
+            {
+                super.shift( x );
+            }
+            finally
+            {
+                inShift = false;
+            }
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.SHIFT, x );
+        }
+
+        public void clear( )
+        {
+            super.clear( );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.CLEAR );
+        }
+
+        public Iterator<Integer> iterator( )
+        {
+            return new RecordingListIterator( super.listIterator( ) );
+        }
+
+        public ListIterator<Integer> listIterator( )
+        {
+            return new RecordingListIterator( super.listIterator( ) );
+        }
+
+        public ListIterator<Integer> listIterator( int idx )
+        {
+            return new RecordingListIterator( super.listIterator( idx ) );
+        }
+
+        /**
+         * Records add and remove as the index operations they amount to.
+         */
+        private class RecordingListIterator implements ListIterator<Integer>
+        {
+            RecordingListIterator( ListIterator<Integer> itr )
+            {
+                this.itr = itr;
+            }
+
+            public boolean hasNext( )
+            {
+                return itr.hasNext( );
+            }
+
+            public Integer next( )
+            {
+                int idx = itr.nextIndex( );
+                Integer x = itr.next( );
+                lastIdx = idx;
+                return x;
+            }
+
+            public boolean hasPrevious( )
+            {
+                return itr.hasPrevious( );
+            }
+
+            public Integer previous( )
+            {
+                int idx = itr.previousIndex( );
+                Integer x = itr.previous( );
+                lastIdx = idx;
+                return x;
+            }
+
+            public int nextIndex( )
+            {
+                return itr.nextIndex( );
+            }
+
+            public int previousIndex( )
+            {
+                return itr.previousIndex( );
+            }
+
+            public void remove( )
+            {
+                itr.remove( );
+                Trace.Writer w = out;
+                if( w != null )
+                    w.write( Trace.REMOVE_AT, lastIdx );
+            }
+
+            public void set( Integer x )
+            {
+                itr.set( Objects.requireNonNull( x ) );
+            }
+
+            public void add( Integer x )
+            {
+                int idx = itr.nextIndex( );
+                itr.add( Objects.requireNonNull( x ) );
+                Trace.Writer w = out;
+                if( w != null )
+                    w.write( Trace.ADD, idx, x );
+            }
+
+            private final ListIterator<Integer> itr;
+            private int lastIdx;    // index of the item last returned
+        }
+
+        private volatile Trace.Writer out;
+        private boolean inShift;
+    }
+
+    /**
+     * A MyStack recording push, pop and clear. Bulk pushes and pops are
+     * recorded item by item. Its iterator does not support remove, which
+     * takes an item out from under the top and has no record in a trace.
+     */
+    public static class RecordingStack extends MyStack<Integer>
+    {
+        /**
+         * Writes the current contents to out, bottom first, and starts
+         * recording to it.
+         * @throws IllegalArgumentException if out is not a STACK trace.
+         */
+        public void attach( Trace.Writer out )
+        {
+            check( out, Trace.STACK ).write( Trace.CLEAR );
+            for( Integer x : this )
+                out.write( Trace.PUSH, x );
+            this.out = out;
+        }
+
+        public void detach( )
+        {
+            out = null;
+        }
+
+        public void push( Integer x )
+        {
+            super.push( Objects.requireNonNull( x ) );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.PUSH, x );
+        }
+
+        public void pushAll( Integer [ ] items )
+        {
+            requireNoNulls( Arrays.asList( items ) );
+            super.pushAll( items );
+            Trace.Writer w = out;
+            if( w != null )
+                for( Integer x : items )
+                    w.write( Trace.PUSH, x );
+        }
+
+        public void pushAll( Collection<? extends Integer> c )
+        {
+            super.pushAll( requireNoNulls( c ) );
+            Trace.Writer w = out;
+            if( w != null )
+                for( Integer x : c )
+                    w.write( Trace.PUSH, x );
+        }
+
+        public Integer pop( )
+        {
+            Integer x = super.pop( );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.POP );
+            return x;
+        }
+
+        public int popN( int n, Integer [ ] dest )
+        {
+            int k = super.popN( n, dest );
+            Trace.Writer w = out;
+            if( w != null )
+                for( int i = 0; i < k; i++ )
+                    w.write( Trace.POP );
+            return k;
+        }
+
+        public int drainTo( Consumer<? super Integer> action )
+        {
+            int n = size( );
+            try
+            {
+                return super.drainTo( action );
+            }
+            finally
+            {
+                Trace.Writer w = out;
+                if( w != null )
+                    for( int i = size( ); i < n; i++ )
+                        w.write( Trace.POP );
+            }
+        }
+
+        public void clear( )
+        {
+            super.clear( );
+            Trace.Writer w = out;
+            if( w != null )
+                w.write( Trace.CLEAR );
+        }
+
+        public Iterator<Integer> iterator( )
+        {
+            Iterator<Integer> itr = super.iterator( );
+            return new Iterator<Integer>( )
+            {
+                public boolean hasNext( )
+                {
+                    return itr.hasNext( );
+                }
+
+                public Integer next( )
+                {
+                    return itr.next( );
+                }
+
+                public void forEachRemaining( Consumer<? super Integer> action )
+                {
+                    itr.forEachRemaining( action );
+                }
+            };
+        }
+
+        private volatile Trace.Writer out;
+    }
+
+    private static <C extends Collection<? extends Integer>> C requireNoNulls( C xs )
+    {
+        for( Integer x : xs )
+            Objects.requireNonNull( x );
+        return xs;
+    }
+
+    private static Trace.Writer check( Trace.Writer out, byte kind )
+    {
+        if( out.kind( ) != kind )
+            throw new IllegalArgumentException( "trace kind " + out.kind( ) + ", expected " + kind );
+        return out;
+    }
+}
@@ -0,0 +1,490 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * TraceReplay class replays a Trace as fast as it can against one or more
+ * implementations of the traced structure, and reports throughput and
+ * per-operation latency percentiles for each.
+ * The trace is decoded a chunk at a time into int arrays, outside the
+ * timed loop, so file reading does not count against the structure.
+ * Latencies include one System.nanoTime( ) call, some 20ns.
+ * Each run also prints a checksum of what contains, get and pop returned,
+ * and of how many keys each batch added or removed; implementations that
+ * behave alike print the same checksum.
+ * Usage: java TraceReplay trace [variant ...]
+ *        java TraceReplay     (records demo traces and replays them)
+ */
+public final class TraceReplay
+{
+    private TraceReplay( )
+    {
+    }
+
+    /**
+     * An implementation under replay. apply performs one record and
+     * returns something derived from its result, for the checksum;
+     * applyAll does the same for a batch record.
+     */
+    public interface Target
+    {
+        int apply( int op, int a, int b );
+
+        default int applyAll( int op, List<Integer> keys )
+        {
+            throw unexpected( op );
+        }
+    }
+
+    /**
+     * The outcome of one replay.
+     */
+    public static final class Result
+    {
+        Result( LatencyHistogram latency, long nanos, long checksum )
+        {
+            this.latency = latency; this.nanos = nanos; this.checksum = checksum;
+        }
+
+        public long operations( ) { return latency.total( ); }
+        public double operationsPerSecond( ) { return latency.total( ) * 1e9 / nanos; }
+        public long percentile( double p ) { return latency.percentile( p ); }
+        public long max( ) { return latency.max( ); }
+        public long checksum( ) { return checksum; }
+
+        public String toString( )
+        {
+            return String.format( "%,12d ops %12.0f ops/s  p50 %5d ns  p90 %5d ns  p99 %6d ns  p99.9 %7d ns  max %9d ns  checksum %016x",
+                                  operations( ), operationsPerSecond( ), percentile( 0.5 ), percentile( 0.9 ),
+                                  percentile( 0.99 ), percentile( 0.999 ), max( ), checksum );
+        }
+
+        private final LatencyHistogram latency;
+        private final long nanos;
+        private final long checksum;
+    }
+
+    /**
+     * Replays the trace in file against target.
+     * @throws IOException if the file cannot be read or is not a trace.
+     */
+    public static Result replay( Path file, Target target ) throws IOException
+    {
+        int [ ] ops = new int[ CHUNK ];
+        int [ ] as = new int[ CHUNK ];
+        int [ ] bs = new int[ CHUNK ];
+        List<List<Integer>> batches = new ArrayList<List<Integer>>( );
+        LatencyHistogram latency = new LatencyHistogram( );
+        long nanos = 0;
+        long checksum = 0;
+
+        try( Trace.Reader in = new Trace.Reader( file ) )
+        {
+            for( ; ; )
+            {
+                // A batch's keys count against the chunk too, boxed here
+                int n = 0;
+                int keys = 0;
+                batches.clear( );
+                for( int op; n < CHUNK && keys < CHUNK && ( op = in.next( ) ) >= 0; n++ )
+                {
+                    int k = Trace.operands( op );
+                    ops[ n ] = op;
+                    as[ n ] = k > 0 ? in.operand( ) : 0;
+                    bs[ n ] = k > 1 ? in.operand( ) : 0;
+                    if( Trace.isBatch( op ) )
+                    {
+                        List<Integer> batch = new ArrayList<Integer>( as[ n ] );
+                        for( int j = as[ n ]; j > 0; j-- )
+                            batch.add( in.operand( ) );
+                        keys += batch.size( );
+                        as[ n ] = batches.size( );
+                        batches.add( batch );
+                    }
+                }
+                if( n == 0 )
+                    break;
+
+                long start = System.nanoTime( );
+                long t = start;
+                for( int i = 0; i < n; i++ )
+                {
+                    int r = Trace.isBatch( ops[ i ] ) ? target.applyAll( ops[ i ], batches.get( as[ i ] ) )
+                                                      : target.apply( ops[ i ], as[ i ], bs[ i ] );
+                    checksum = checksum * 31 + r;
+                    long now = System.nanoTime( );
+                    latency.record( now - t );
+                    t = now;
+                }
+                nanos += t - start;
+            }
+        }
+        return new Result( latency, Math.max( nanos, 1 ), checksum );
+    }
+
+    /**
+     * Returns the implementations that can replay traces of the given
+     * kind, by name, in a fixed order.
+     * @throws IllegalArgumentException if kind is not a Trace kind.
+     */
+    public static Map<String, Supplier<Target>> variants( byte kind )
+    {
+        Map<String, Supplier<Target>> m = new LinkedHashMap<String, Supplier<Target>>( );
+        switch( kind )
+        {
+          case Trace.TREE:
+            m.put( "BinarySearchTree", ( ) -> tree( new BinarySearchTree<Integer>( ) ) );
+            m.put( "ShardedBinarySearchTree", ( ) -> sharded( new ShardedBinarySearchTree<Integer>( SHARD_SPLITS ) ) );
+            m.put( "TreeSet", ( ) -> treeSet( new java.util.TreeSet<Integer>( ) ) );
+            break;
+          case Trace.LIST:
+            m.put( "MyLinkedList", ( ) -> list( new MyLinkedList<Integer>( ) ) );
+            m.put( "MyTreeList", ( ) -> treeList( new MyTreeList<Integer>( ) ) );
+            m.put( "IntLinkedList", ( ) -> intList( new IntLinkedList( ) ) );
+            m.put( "ArrayList", ( ) -> arrayList( new java.util.ArrayList<Integer>( ) ) );
+            break;
+          case Trace.STACK:
+            m.put( "MyStack", ( ) -> stack( new MyStack<Integer>( ) ) );
+            m.put( "SegmentedStack", ( ) -> segmentedStack( new SegmentedStack<Integer>( ) ) );
+            m.put( "IntStack", ( ) -> intStack( new IntStack( ) ) );
+            m.put( "ArrayDeque", ( ) -> arrayDeque( new java.util.ArrayDeque<Integer>( ) ) );
+            break;
+          default:
+            throw new IllegalArgumentException( "bad trace kind: " + kind );
+        }
+        return m;
+    }
+
+    private static Target tree( BinarySearchTree<Integer> t )
+    {
+        return new Target( )
+        {
+            public int apply( int op, int a, int b )
+            {
+                switch( op )
+                {
+                  case Trace.INSERT: t.insert( a ); return 0;
+                  case Trace.REMOVE: t.remove( a ); return 0;
+                  case Trace.CONTAINS: return t.contains( a ) ? 1 : 0;
+                  case Trace.CLEAR: t.makeEmpty( ); return 0;
+                  default: throw unexpected( op );
+                }
+            }
+
+            public int applyAll( int op, List<Integer> keys )
+            {
+                switch( op )
+                {
+                  case Trace.INSERT_ALL: return t.insertAll( keys );
+                  case Trace.REMOVE_ALL: return t.removeAll( keys );
+                  default: throw unexpected( op );
+                }
+            }
+        };
+    }
+
+    private static Target sharded( ShardedBinarySearchTree<Integer> t )
+    {
+        return new Target( )
+        {
+            public int apply( int op, int a, int b )
+            {
+                switch( op )
+                {
+                  case Trace.INSERT: t.insert( a ); return 0;
+                  case Trace.REMOVE: t.remove( a ); return 0;
+                  case Trace.CONTAINS: return t.contains( a ) ? 1 : 0;
+                  case Trace.CLEAR: t.makeEmpty( ); return 0;
+                  default: throw unexpected( op );
+                }
+            }
+
+            // There is no batch remove, so REMOVE_ALL goes key by key
+            public int applyAll( int op, List<Integer> keys )
+            {
+                switch( op )
+                {
+                  case Trace.INSERT_ALL: return t.insertAll( keys );
+                  case Trace.REMOVE_ALL:
+                    int n = 0;
+                    for( Integer k : keys )
+                        if( t.contains( k ) )
+                        {
+                            t.remove( k );
+                            n++;
+                        }
+                    return n;
+                  default: throw unexpected( op );
+                }
+            }
+        };
+    }
+
+    private static Target treeSet( java.util.TreeSet<Integer> t )
+    {
+        return new Target( )
+        {
+            public int apply( int op, int a, int b )
+            {
+                switch( op )
+                {
+                  case Trace.INSERT: t.add( a ); return 0;
+                  case Trace.REMOVE: t.remove( a ); return 0;
+                  case Trace.CONTAINS: return t.contains( a ) ? 1 : 0;
+                  case Trace.CLEAR: t.clear( ); return 0;
+                  default: throw unexpected( op );
+                }
+            }
+
+            public int applyAll( int op, List<Integer> keys )
+            {
+                int before = t.size( );
+                switch( op )
+                {
+                  case Trace.INSERT_ALL: t.addAll( keys ); return t.size( ) - before;
+                  case Trace.REMOVE_ALL: t.removeAll( keys ); return before - t.size( );
+                  default: throw unexpected( op );
+                }
+            }
+        };
+    }
+
+    private static Target list( MyLinkedList<Integer> l )
+    {
+        return ( op, a, b ) -> {
+            switch( op )
+            {
+              case Trace.ADD: l.add( a, b ); return 0;
+              case Trace.GET: return l.get( a );
+              case Trace.REMOVE_AT: l.remove( a ); return 0;
+              case Trace.SHIFT: l.shift( a ); return 0;
+              case Trace.CLEAR: l.clear( ); return 0;
+              default: throw unexpected( op );
+            }
+        };
+    }
+
+    private static Target treeList( MyTreeList<Integer> l )
+    {
+        return ( op, a, b ) -> {
+            switch( op )
+            {
+              case Trace.ADD: l.add( a, b ); return 0;
+              case Trace.GET: return l.get( a );
+              case Trace.REMOVE_AT: l.remove( a ); return 0;
+              case Trace.SHIFT: l.shift( a ); return 0;
+              case Trace.CLEAR: l.clear( ); return 0;
+              default: throw unexpected( op );
+            }
+        };
+    }
+
+    private static Target intList( IntLinkedList l )
+    {
+        return ( op, a, b ) -> {
+            switch( op )
+            {
+              case Trace.ADD: l.add( a, b ); return 0;
+              case Trace.GET: return l.get( a );
+              case Trace.REMOVE_AT: l.remove( a ); return 0;
+              case Trace.SHIFT: l.shift( a ); return 0;
+              case Trace.CLEAR: l.clear( ); return 0;
+              default: throw unexpected( op );
+            }
+        };
+    }
+
+    private static Target arrayList( java.util.ArrayList<Integer> l )
+    {
+        return ( op, a, b ) -> {
+            switch( op )
+            {
+              case Trace.ADD: l.add( a, b ); return 0;
+              case Trace.GET: return l.get( a );
+              case Trace.REMOVE_AT: l.remove( a ); return 0;
+              case Trace.SHIFT: java.util.Collections.rotate( l, -a ); return 0;
+              case Trace.CLEAR: l.clear( ); return 0;
+              default: throw unexpected( op );
+            }
+        };
+    }
+
+    private static Target stack( MyStack<Integer> s )
+    {
+        return ( op, a, b ) -> {
+            switch( op )
+            {
+              case Trace.PUSH: s.push( a ); return 0;
+              case Trace.POP: return s.pop( );
+              case Trace.CLEAR: s.clear( ); return 0;
+              default: throw unexpected( op );
+            }
+        };
+    }
+
+    private static Target segmentedStack( SegmentedStack<Integer> s )
+    {
+        return ( op, a, b ) -> {
+            switch( op )
+            {
+              case Trace.PUSH: s.push( a ); return 0;
+              case Trace.POP: return s.pop( );
+              case Trace.CLEAR: s.clear( ); return 0;
+              default: throw unexpected( op );
+            }
+        };
+    }
+
+    private static Target intStack( IntStack s )
+    {
+        return ( op, a, b ) -> {
+            switch( op )
+            {
+              case Trace.PUSH: s.push( a ); return 0;
+              case Trace.POP: return s.pop( );
+              case Trace.CLEAR: s.clear( ); return 0;
+              default: throw unexpected( op );
+            }
+        };
+    }
+
+    private static Target arrayDeque( java.util.ArrayDeque<Integer> s )
+    {
+        return ( op, a, b ) -> {
+            switch( op )
+            {
+              case Trace.PUSH: s.push( a ); return 0;
+              case Trace.POP: return s.pop( );
+              case Trace.CLEAR: s.clear( ); return 0;
+              default: throw unexpected( op );
+            }
+        };
+    }
+
+    private static IllegalArgumentException unexpected( int op )
+    {
+        return new IllegalArgumentException( "opcode " + op + " does not apply to this structure" );
+    }
+
+    /**
+     * Replays file against the named variants, or all variants of its kind.
+     */
+    public static void report( Path file, String... names ) throws IOException
+    {
+        byte kind;
+        try( Trace.Reader in = new Trace.Reader( file ) )
+        {
+            kind = in.kind( );
+        }
+
+        Map<String, Supplier<Target>> all = variants( kind );
+        for( String name : names.length > 0 ? names : all.keySet( ).toArray( new String[ 0 ] ) )
+        {
+            Supplier<Target> variant = all.get( name );
+            if( variant == null )
+                throw new IllegalArgumentException( "no variant " + name + "; choose from " + all.keySet( ) );
+            System.out.printf( "%-24s %s%n", name, replay( file, variant.get( ) ) );
+        }
+    }
+
+    // Sixteen shards splitting the int range evenly
+    private static final Integer [ ] SHARD_SPLITS = new Integer[ 15 ];
+    static
+    {
+        for( int i = 0; i < SHARD_SPLITS.length; i++ )
+            SHARD_SPLITS[ i ] = (int) ( Integer.MIN_VALUE + ( i + 1 ) * ( 1L << 28 ) );
+    }
+
+    private static final int CHUNK = 1 << 16;
+
+    public static void main( String [ ] args ) throws IOException
+    {
+        if( args.length > 0 )
+        {
+            report( Paths.get( args[ 0 ] ), java.util.Arrays.copyOfRange( args, 1, args.length ) );
+            return;
+        }
+
+        // Demo: record a workload on each structure, then replay it everywhere
+        java.util.Random r = new java.util.Random( 1 );
+        Path treeTrace = Files.createTempFile( "tree", ".trace" );
+        Path listTrace = Files.createTempFile( "list", ".trace" );
+        Path stackTrace = Files.createTempFile( "stack", ".trace" );
+        try
+        {
+            TraceRecorder.RecordingTree t = new TraceRecorder.RecordingTree( );
+            try( Trace.Writer out = new Trace.Writer( treeTrace, Trace.TREE ) )
+            {
+                t.attach( out );
+                List<Integer> sorted = new ArrayList<Integer>( );
+                for( int k = -( 1 << 19 ); k < 1 << 19; k += 4 )
+                    sorted.add( k );
+                t.insertAll( sorted );    // one-at-a-time, this would be a 256K-deep chain
+                for( int i = 0; i < 1000000; i++ )
+                {
+                    int k = r.nextInt( 1 << 20 ) - ( 1 << 19 );
+                    switch( r.nextInt( 4 ) )
+                    {
+                      case 0: t.insert( k ); break;
+                      case 1: t.remove( k ); break;
+                      default: t.contains( k ); break;
+                    }
+                    if( i % 100000 == 0 )
+                        t.removeAll( sorted.subList( i / 8, i / 8 + 1000 ) );
+                }
+                t.detach( );
+                System.out.println( "tree trace: " + out.records( ) + " records" );
+            }
+
+            TraceRecorder.RecordingList l = new TraceRecorder.RecordingList( );
+            try( Trace.Writer out = new Trace.Writer( listTrace, Trace.LIST ) )
+            {
+                l.attach( out );
+                for( int i = 0; i < 100000; i++ )
+                {
+                    switch( r.nextInt( 5 ) )
+                    {
+                      case 0: case 1: l.add( r.nextInt( l.size( ) + 1 ), i ); break;
+                      case 2: if( !l.isEmpty( ) ) l.remove( r.nextInt( l.size( ) ) ); break;
+                      case 3: if( !l.isEmpty( ) ) l.get( r.nextInt( l.size( ) ) ); break;
+                      default: if( !l.isEmpty( ) ) l.shift( r.nextInt( 9 ) - 4 ); break;
+                    }
+                }
+                l.detach( );
+                System.out.println( "list trace: " + out.records( ) + " records" );
+            }
+
+            TraceRecorder.RecordingStack s = new TraceRecorder.RecordingStack( );
+            try( Trace.Writer out = new Trace.Writer( stackTrace, Trace.STACK ) )
+            {
+                s.attach( out );
+                for( int i = 0; i < 10000000; i++ )
+                {
+                    if( s.isEmpty( ) || r.nextInt( 8 ) < 5 )
+                        s.push( i );
+                    else
+                        s.pop( );
+                }
+                s.detach( );
+                System.out.println( "stack trace: " + out.records( ) + " records, "
+                                    + Files.size( stackTrace ) + " bytes" );
+            }
+
+            report( treeTrace );
+            report( listTrace );
+            report( stackTrace );
+        }
+        finally
+        {
+            Files.deleteIfExists( treeTrace );
+            Files.deleteIfExists( listTrace );
+            Files.deleteIfExists( stackTrace );
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Looks up the data structure classes, which live in the unnamed package
+ * and so cannot be imported from here (and JMH refuses benchmarks in the
+ * unnamed package). Handles are adapted so that objects are passed as
+ * Object and primitives stay primitive. Kept in static final fields, they
+ * are constants to the JIT and inline like direct calls.
+ */
+final class Api
+{
+    private Api( )
+    {
+    }
+
+    /**
+     * A handle for the no-argument constructor of cls, typed ()Object.
+     */
+    static MethodHandle constructor( String cls )
+    {
+        try
+        {
+            MethodHandle mh = LOOKUP.findConstructor( Class.forName( cls ), MethodType.methodType( void.class ) );
+            return mh.asType( MethodType.methodType( Object.class ) );
+        }
+        catch( ReflectiveOperationException e )
+        {
+            throw new ExceptionInInitializerError( e );
+        }
+    }
+
+    /**
+     * A handle for an instance method of cls, declared with the given
+     * (erased) return and parameter types, taking the receiver as Object.
+     */
+    static MethodHandle method( String cls, String name, Class<?> ret, Class<?>... params )
+    {
+        try
+        {
+            MethodHandle mh = LOOKUP.findVirtual( Class.forName( cls ), name, MethodType.methodType( ret, params ) );
+            Class<?> [ ] generic = new Class<?>[ params.length + 1 ];
+            generic[ 0 ] = Object.class;
+            for( int i = 0; i < params.length; i++ )
+                generic[ i + 1 ] = erase( params[ i ] );
+            return mh.asType( MethodType.methodType( erase( ret ), generic ) );
+        }
+        catch( ReflectiveOperationException e )
+        {
+            throw new ExceptionInInitializerError( e );
+        }
+    }
+
+    private static Class<?> erase( Class<?> c )
+    {
+        return c.isPrimitive( ) ? c : Object.class;
+    }
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup( );
+}
@@ -0,0 +1,34 @@
+package bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: the usual JMH command line, with the GC
+ * profiler always on so every result comes with allocation rates.
+ */
+public class BenchmarkMain
+{
+    public static void main( String [ ] args ) throws Exception
+    {
+        CommandLineOptions cmd = new CommandLineOptions( args );
+        if( cmd.shouldHelp( ) || cmd.shouldList( ) || cmd.shouldListProfilers( ) )
+        {
+            org.openjdk.jmh.Main.main( args );
+            return;
+        }
+
+        try
+        {
+            new Runner( new OptionsBuilder( ).parent( cmd ).addProfiler( GCProfiler.class ).build( ) ).run( );
+        }
+        catch( RunnerException e )
+        {
+            System.err.println( e.getMessage( ) );
+            System.exit( 1 );
+        }
+    }
+}
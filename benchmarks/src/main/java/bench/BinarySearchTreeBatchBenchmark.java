@@ -0,0 +1,94 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * BinarySearchTree insertAll and removeAll against a loop of insert or
+ * remove calls, for a batch of batch keys applied to a random tree of
+ * size keys. The tree holds the even numbers below 2 * size and the batch
+ * is spread over the same range, so about half its keys are present.
+ * Scores are per batch.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Xss256m" )
+@State( Scope.Thread )
+public class BinarySearchTreeBatchBenchmark
+{
+    @Param( { "10000", "100000" } )
+    int size;
+
+    @Param( { "1000", "100000" } )
+    int batch;
+
+    @Param( { "RANDOM", "SORTED" } )
+    Keys keys;
+
+    Integer [ ] treeKeys;
+    List<Integer> batchKeys;
+    Object tree;
+
+    @Setup( Level.Trial )
+    public void setUp( )
+    {
+        int [ ] t = Keys.RANDOM.generate( size, 1 );
+        treeKeys = new Integer[ size ];
+        for( int i = 0; i < size; i++ )
+            treeKeys[ i ] = 2 * t[ i ];
+
+        batchKeys = new ArrayList<>( batch );
+        for( int k : keys.generate( batch, 2 ) )
+            batchKeys.add( (int) ( (long) k * 2 * size / batch ) );
+    }
+
+    @Setup( Level.Invocation )
+    public void build( ) throws Throwable
+    {
+        tree = NEW.invokeExact( );
+        for( Integer k : treeKeys )
+            INSERT.invokeExact( tree, (Object) k );
+    }
+
+    @Benchmark
+    public Object insertLoop( ) throws Throwable
+    {
+        for( Integer k : batchKeys )
+            INSERT.invokeExact( tree, (Object) k );
+        return tree;
+    }
+
+    @Benchmark
+    public int insertAll( ) throws Throwable
+    {
+        return (int) INSERT_ALL.invokeExact( tree, (Object) batchKeys );
+    }
+
+    @Benchmark
+    public Object removeLoop( ) throws Throwable
+    {
+        for( Integer k : batchKeys )
+            REMOVE.invokeExact( tree, (Object) k );
+        return tree;
+    }
+
+    @Benchmark
+    public int removeAll( ) throws Throwable
+    {
+        return (int) REMOVE_ALL.invokeExact( tree, (Object) batchKeys );
+    }
+
+    private static final String BST = "BinarySearchTree";
+    private static final MethodHandle NEW = Api.constructor( BST );
+    private static final MethodHandle INSERT = Api.method( BST, "insert", void.class, Comparable.class );
+    private static final MethodHandle REMOVE = Api.method( BST, "remove", void.class, Comparable.class );
+    private static final MethodHandle INSERT_ALL = Api.method( BST, "insertAll", int.class, Collection.class );
+    private static final MethodHandle REMOVE_ALL = Api.method( BST, "removeAll", int.class, Collection.class );
+}
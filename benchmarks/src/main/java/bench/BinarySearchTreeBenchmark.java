@@ -0,0 +1,94 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * BinarySearchTree insert, contains and remove. Each operation is done
+ * once per key of a size-key batch, so scores are per batch. Sorted keys
+ * build a degenerate (linked-list shaped) tree, hence the deep stacks.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( value = 1, jvmArgsAppend = "-Xss256m" )
+@State( Scope.Thread )
+public class BinarySearchTreeBenchmark
+{
+    @Param( { "1000", "10000" } )
+    int size;
+
+    @Param( { "RANDOM", "SORTED", "ZIPF" } )
+    Keys keys;
+
+    Integer [ ] insertKeys;
+    Integer [ ] lookupKeys;
+    Object tree;
+
+    @Setup( Level.Trial )
+    public void setUp( ) throws Throwable
+    {
+        insertKeys = box( keys.generate( size, 1 ) );
+        lookupKeys = box( keys.generate( size, 2 ) );
+        tree = build( );
+    }
+
+    @Benchmark
+    public Object insert( ) throws Throwable
+    {
+        return build( );
+    }
+
+    @Benchmark
+    public void contains( Blackhole bh ) throws Throwable
+    {
+        for( Integer k : lookupKeys )
+            bh.consume( (boolean) CONTAINS.invokeExact( tree, (Object) k ) );
+    }
+
+    @State( Scope.Thread )
+    public static class Fresh
+    {
+        Object tree;
+
+        @Setup( Level.Invocation )
+        public void setUp( BinarySearchTreeBenchmark b ) throws Throwable
+        {
+            tree = b.build( );
+        }
+    }
+
+    @Benchmark
+    public Object remove( Fresh fresh ) throws Throwable
+    {
+        for( Integer k : lookupKeys )
+            REMOVE.invokeExact( fresh.tree, (Object) k );
+        return fresh.tree;
+    }
+
+    Object build( ) throws Throwable
+    {
+        Object t = NEW.invokeExact( );
+        for( Integer k : insertKeys )
+            INSERT.invokeExact( t, (Object) k );
+        return t;
+    }
+
+    private static Integer [ ] box( int [ ] a )
+    {
+        Integer [ ] b = new Integer[ a.length ];
+        for( int i = 0; i < a.length; i++ )
+            b[ i ] = a[ i ];
+        return b;
+    }
+
+    private static final String BST = "BinarySearchTree";
+    private static final MethodHandle NEW = Api.constructor( BST );
+    private static final MethodHandle INSERT = Api.method( BST, "insert", void.class, Comparable.class );
+    private static final MethodHandle REMOVE = Api.method( BST, "remove", void.class, Comparable.class );
+    private static final MethodHandle CONTAINS = Api.method( BST, "contains", boolean.class, Comparable.class );
+}
@@ -0,0 +1,60 @@
+package bench;
+
+import java.util.Random;
+
+/**
+ * Key sequences for the tree benchmarks: random, sorted, and Zipf
+ * distributed (a few hot keys account for most draws).
+ */
+public enum Keys
+{
+    RANDOM, SORTED, ZIPF;
+
+    /**
+     * Returns n keys drawn from 0 .. n-1 under this distribution.
+     */
+    public int [ ] generate( int n, long seed )
+    {
+        Random r = new Random( seed );
+        int [ ] keys = new int[ n ];
+
+        switch( this )
+        {
+          case SORTED:
+            for( int i = 0; i < n; i++ )
+                keys[ i ] = i;
+            break;
+          case RANDOM:
+            for( int i = 0; i < n; i++ )
+                keys[ i ] = i;
+            for( int i = n - 1; i > 0; i-- )
+            {
+                int j = r.nextInt( i + 1 );
+                int t = keys[ i ]; keys[ i ] = keys[ j ]; keys[ j ] = t;
+            }
+            break;
+          default:
+            zipf( keys, r );
+            break;
+        }
+        return keys;
+    }
+
+    // Zipf with exponent 1 over n ranks; rank k maps to a scrambled key
+    private static void zipf( int [ ] keys, Random r )
+    {
+        int n = keys.length;
+        double [ ] cdf = new double[ n ];
+        double sum = 0;
+        for( int k = 0; k < n; k++ )
+            cdf[ k ] = sum += 1.0 / ( k + 1 );
+
+        for( int i = 0; i < n; i++ )
+        {
+            int rank = java.util.Arrays.binarySearch( cdf, r.nextDouble( ) * sum );
+            if( rank < 0 )
+                rank = -rank - 1;
+            keys[ i ] = (int) ( ( rank * 0x9E3779B1L ) % n );
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * MyLinkedList positional access, edits at the ends and in the middle,
+ * and the bulk shift, erase and insertList operations. Every benchmark
+ * leaves the list at its original size.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class MyLinkedListBenchmark
+{
+    @Param( { "1000", "100000" } )
+    int size;
+
+    Object list;
+    Object chunk;
+    Integer item = 42;
+    int next;
+
+    @Setup( Level.Trial )
+    public void setUp( ) throws Throwable
+    {
+        list = NEW.invokeExact( );
+        for( int i = 0; i < size; i++ )
+            ADD_LAST.invoke( list, (Object) i );
+
+        chunk = NEW.invokeExact( );
+        for( int i = 0; i < CHUNK; i++ )
+            ADD_LAST.invoke( chunk, (Object) ( -i ) );
+    }
+
+    @Benchmark
+    public Object getMiddle( ) throws Throwable
+    {
+        return GET.invokeExact( list, size / 2 );
+    }
+
+    @Benchmark
+    public Object getSweep( ) throws Throwable
+    {
+        next = next + 7919 < size ? next + 7919 : ( next + 7919 ) % size;
+        return GET.invokeExact( list, next );
+    }
+
+    @Benchmark
+    public Object addRemoveFront( ) throws Throwable
+    {
+        ADD.invokeExact( list, 0, (Object) item );
+        return REMOVE.invokeExact( list, 0 );
+    }
+
+    @Benchmark
+    public Object addRemoveBack( ) throws Throwable
+    {
+        boolean added = (boolean) ADD_LAST.invokeExact( list, (Object) item );
+        return added ? REMOVE.invokeExact( list, size ) : null;
+    }
+
+    @Benchmark
+    public Object addRemoveMiddle( ) throws Throwable
+    {
+        ADD.invokeExact( list, size / 2, (Object) item );
+        return REMOVE.invokeExact( list, size / 2 );
+    }
+
+    @Benchmark
+    public Object shift( ) throws Throwable
+    {
+        SHIFT.invokeExact( list, CHUNK );
+        return list;
+    }
+
+    @Benchmark
+    public Object insertListThenErase( ) throws Throwable
+    {
+        INSERT_LIST.invokeExact( list, size / 2, chunk );
+        ERASE.invokeExact( list, size / 2, CHUNK );
+        return list;
+    }
+
+    private static final int CHUNK = 100;
+
+    private static final String LIST = "MyLinkedList";
+    private static final MethodHandle NEW = Api.constructor( LIST );
+    private static final MethodHandle ADD_LAST = Api.method( LIST, "add", boolean.class, Object.class );
+    private static final MethodHandle ADD = Api.method( LIST, "add", void.class, int.class, Object.class );
+    private static final MethodHandle GET = Api.method( LIST, "get", Object.class, int.class );
+    private static final MethodHandle REMOVE = Api.method( LIST, "remove", Object.class, int.class );
+    private static final MethodHandle SHIFT = Api.method( LIST, "shift", void.class, int.class );
+    private static final MethodHandle ERASE = Api.method( LIST, "erase", void.class, int.class, int.class );
+    private static final MethodHandle INSERT_LIST = Api.method( LIST, "insertList", void.class, int.class, classFor( LIST ) );
+
+    private static Class<?> classFor( String name )
+    {
+        try
+        {
+            return Class.forName( name );
+        }
+        catch( ClassNotFoundException e )
+        {
+            throw new ExceptionInInitializerError( e );
+        }
+    }
+}
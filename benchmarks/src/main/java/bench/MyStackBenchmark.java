@@ -0,0 +1,69 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * MyStack push and pop at a steady depth, and a fill-then-drain of size
+ * items on a fresh stack, which includes every growth (and shrink) step.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class MyStackBenchmark
+{
+    @Param( { "1000", "1000000" } )
+    int size;
+
+    Object stack;
+    Integer item = 42;
+
+    @Setup( Level.Trial )
+    public void setUp( ) throws Throwable
+    {
+        stack = NEW.invokeExact( );
+        for( int i = 0; i < size; i++ )
+            PUSH.invokeExact( stack, (Object) i );
+    }
+
+    @Benchmark
+    public Object pushPop( ) throws Throwable
+    {
+        PUSH.invokeExact( stack, (Object) item );
+        return POP.invokeExact( stack );
+    }
+
+    @Benchmark
+    @OutputTimeUnit( TimeUnit.MICROSECONDS )
+    public Object growFromEmpty( ) throws Throwable
+    {
+        Object s = NEW.invokeExact( );
+        for( int i = 0; i < size; i++ )
+            PUSH.invokeExact( s, (Object) item );
+        return s;
+    }
+
+    @Benchmark
+    @OutputTimeUnit( TimeUnit.MICROSECONDS )
+    public int fillThenPopAll( ) throws Throwable
+    {
+        Object s = NEW.invokeExact( );
+        for( int i = 0; i < size; i++ )
+            PUSH.invokeExact( s, (Object) item );
+        int n = 0;
+        while( !(boolean) IS_EMPTY.invokeExact( s ) )
+            n += POP.invokeExact( s ) == item ? 1 : 0;
+        return n;
+    }
+
+    private static final String STACK = "MyStack";
+    private static final MethodHandle NEW = Api.constructor( STACK );
+    private static final MethodHandle PUSH = Api.method( STACK, "push", void.class, Object.class );
+    private static final MethodHandle POP = Api.method( STACK, "pop", Object.class );
+    private static final MethodHandle IS_EMPTY = Api.method( STACK, "isEmpty", boolean.class );
+}
@@ -0,0 +1,88 @@
+package bench;
+
+import java.lang.invoke.MethodHandle;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * IntStack and LongStack against MyStack<Integer> and ArrayDeque<Integer>:
+ * push size distinct values onto a fresh stack, then pop them all and
+ * sum them. The boxed stacks pay for an Integer per value above the
+ * small-integer cache; the gc.alloc.rate.norm column shows the difference.
+ */
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+@State( Scope.Thread )
+public class PrimitiveStackBenchmark
+{
+    @Param( { "1000", "1000000" } )
+    int size;
+
+    @Benchmark
+    public long intStack( ) throws Throwable
+    {
+        Object s = NEW_INT.invokeExact( );
+        for( int i = 0; i < size; i++ )
+            INT_PUSH.invokeExact( s, i );
+        long sum = 0;
+        while( !(boolean) INT_IS_EMPTY.invokeExact( s ) )
+            sum += (int) INT_POP.invokeExact( s );
+        return sum;
+    }
+
+    @Benchmark
+    public long longStack( ) throws Throwable
+    {
+        Object s = NEW_LONG.invokeExact( );
+        for( int i = 0; i < size; i++ )
+            LONG_PUSH.invokeExact( s, (long) i );
+        long sum = 0;
+        while( !(boolean) LONG_IS_EMPTY.invokeExact( s ) )
+            sum += (long) LONG_POP.invokeExact( s );
+        return sum;
+    }
+
+    @Benchmark
+    public long myStack( ) throws Throwable
+    {
+        Object s = NEW_MY.invokeExact( );
+        for( int i = 0; i < size; i++ )
+            MY_PUSH.invokeExact( s, (Object) Integer.valueOf( i ) );
+        long sum = 0;
+        while( !(boolean) MY_IS_EMPTY.invokeExact( s ) )
+            sum += (Integer) (Object) MY_POP.invokeExact( s );
+        return sum;
+    }
+
+    @Benchmark
+    public long arrayDeque( )
+    {
+        ArrayDeque<Integer> s = new ArrayDeque<Integer>( );
+        for( int i = 0; i < size; i++ )
+            s.push( i );
+        long sum = 0;
+        while( !s.isEmpty( ) )
+            sum += s.pop( );
+        return sum;
+    }
+
+    private static final MethodHandle NEW_INT = Api.constructor( "IntStack" );
+    private static final MethodHandle INT_PUSH = Api.method( "IntStack", "push", void.class, int.class );
+    private static final MethodHandle INT_POP = Api.method( "IntStack", "pop", int.class );
+    private static final MethodHandle INT_IS_EMPTY = Api.method( "IntStack", "isEmpty", boolean.class );
+
+    private static final MethodHandle NEW_LONG = Api.constructor( "LongStack" );
+    private static final MethodHandle LONG_PUSH = Api.method( "LongStack", "push", void.class, long.class );
+    private static final MethodHandle LONG_POP = Api.method( "LongStack", "pop", long.class );
+    private static final MethodHandle LONG_IS_EMPTY = Api.method( "LongStack", "isEmpty", boolean.class );
+
+    private static final MethodHandle NEW_MY = Api.constructor( "MyStack" );
+    private static final MethodHandle MY_PUSH = Api.method( "MyStack", "push", void.class, Object.class );
+    private static final MethodHandle MY_POP = Api.method( "MyStack", "pop", Object.class );
+    private static final MethodHandle MY_IS_EMPTY = Api.method( "MyStack", "isEmpty", boolean.class );
+}